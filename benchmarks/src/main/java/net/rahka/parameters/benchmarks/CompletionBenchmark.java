@@ -0,0 +1,88 @@
+package net.rahka.parameters.benchmarks;
+
+import net.rahka.parameters.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link ParameterInterpreter#complete(String[])}, which looks the partial argument up in prefix tries, with
+ * the naive approach of testing every flag name and every option with {@link String#startsWith(String)}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CompletionBenchmark {
+
+    /**
+     * The number of flags of the interpreter, and the number of options of its collection flag
+     */
+    @Param({"100", "5000"})
+    public int size;
+
+    private ParameterInterpreter interpreter;
+    private List<String> names;
+    private List<String> options;
+
+    private final String[] flagArgs = {"-v", "--flag12"};
+    private final String[] optionArgs = {"-v", "--option", "value12"};
+
+    @Setup
+    public void setup() {
+        List<Flag> flags = new ArrayList<>();
+        names = new ArrayList<>();
+        options = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            flags.add(new Flag("flag" + i, "f" + i, "Benchmark flag"));
+            names.add("--flag" + i);
+            names.add("-f" + i);
+            options.add("value" + i);
+        }
+        flags.add(new Flag("verbose", "v", "Benchmark flag"));
+        flags.add(new CollectionFlag<>("option", "o", "Benchmark flag", options));
+
+        interpreter = new ParameterInterpreter(flags.toArray(new Flag[0]));
+
+        //Builds the tries once, as the first completion of an interpreter does
+        interpreter.complete(flagArgs);
+        interpreter.complete(optionArgs);
+    }
+
+    @Benchmark
+    public List<String> completeFlag() {
+        return interpreter.complete(flagArgs);
+    }
+
+    @Benchmark
+    public List<String> scanFlags() {
+        return scan(names, flagArgs[flagArgs.length - 1]);
+    }
+
+    @Benchmark
+    public List<String> completeOption() {
+        return interpreter.complete(optionArgs);
+    }
+
+    @Benchmark
+    public List<String> scanOptions() {
+        return scan(options, optionArgs[optionArgs.length - 1]);
+    }
+
+    private static List<String> scan(List<String> candidates, String prefix) {
+        List<String> completions = new ArrayList<>();
+        for (String candidate : candidates) {
+            if (candidate.startsWith(prefix)) {
+                completions.add(candidate);
+            }
+        }
+        Collections.sort(completions);
+        return completions;
+    }
+
+}
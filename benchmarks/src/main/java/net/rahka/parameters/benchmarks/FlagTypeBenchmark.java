@@ -0,0 +1,119 @@
+package net.rahka.parameters.benchmarks;
+
+import net.rahka.parameters.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link ParameterInterpreter#interpret(String[])} for each type of flag. Every interpreted command line
+ * contains the benchmarked flag a fixed number of times, so the score reflects the cost of matching the flag and
+ * parsing its argument.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class FlagTypeBenchmark {
+
+    public enum Type {
+        FLAG, FUNCTION, INT, DOUBLE, COLLECTION, MAP, CONSUMER, RUNNABLE, SUPPLIER
+    }
+
+    /**
+     * The number of times the benchmarked flag occurs in the interpreted arguments
+     */
+    private static final int OCCURRENCES = 16;
+
+    /**
+     * The number of options accepted by collection and map flags
+     */
+    @Param({"16", "4096"})
+    public int options;
+
+    @Param
+    public Type type;
+
+    private ParameterInterpreter interpreter;
+    private String[] args;
+
+    @Setup
+    public void setup(Blackhole blackhole) {
+        List<String> collection = new ArrayList<>();
+        Map<String, Integer> map = new LinkedHashMap<>();
+        for (int i = 0; i < options; i++) {
+            collection.add("option" + i);
+            map.put("option" + i, i);
+        }
+
+        Flag flag;
+        switch (type) {
+            case FLAG:
+                flag = new Flag("flag", "f", "Benchmark flag");
+                break;
+            case FUNCTION:
+                flag = new FunctionFlag<>("flag", "f", "Benchmark flag", Integer::parseInt);
+                break;
+            case INT:
+                flag = new IntFlag("flag", "f", "Benchmark flag");
+                break;
+            case DOUBLE:
+                flag = new DoubleFlag("flag", "f", "Benchmark flag");
+                break;
+            case COLLECTION:
+                flag = new CollectionFlag<>("flag", "f", "Benchmark flag", collection);
+                break;
+            case MAP:
+                flag = new MapFlag<>("flag", "f", "Benchmark flag", map);
+                break;
+            case CONSUMER:
+                flag = new ConsumerFlag("flag", "f", "Benchmark flag", blackhole::consume);
+                break;
+            case RUNNABLE:
+                flag = new RunnableFlag("flag", "f", "Benchmark flag", () -> blackhole.consume(true));
+                break;
+            case SUPPLIER:
+                flag = new SupplierFlag<>("flag", "f", "Benchmark flag", () -> 42);
+                break;
+            default:
+                throw new IllegalStateException("Unknown flag type " + type);
+        }
+        interpreter = new ParameterInterpreter(flag);
+
+        List<String> arguments = new ArrayList<>();
+        for (int i = 0; i < OCCURRENCES; i++) {
+            arguments.add("-f");
+            switch (type) {
+                case FUNCTION:
+                case INT:
+                case DOUBLE:
+                    arguments.add(Integer.toString(i));
+                    break;
+                case COLLECTION:
+                case MAP:
+                    // The last option is the worst case for a linear scan
+                    arguments.add("option" + (options - 1));
+                    break;
+                case CONSUMER:
+                    arguments.add("value" + i);
+                    break;
+                default:
+                    break;
+            }
+        }
+        args = arguments.toArray(new String[0]);
+    }
+
+    @Benchmark
+    public ParameterInterpretation interpret() {
+        return interpreter.interpret(args);
+    }
+
+}
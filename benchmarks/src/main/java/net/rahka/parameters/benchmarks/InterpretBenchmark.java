@@ -0,0 +1,66 @@
+package net.rahka.parameters.benchmarks;
+
+import net.rahka.parameters.Flag;
+import net.rahka.parameters.FunctionFlag;
+import net.rahka.parameters.ParameterInterpretation;
+import net.rahka.parameters.ParameterInterpreter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link ParameterInterpreter#interpret(String[])} for a growing number of registered flags and a growing
+ * number of arguments, using either the short-hand ({@code -f0}) or the full ({@code --flag0}) form of the flags.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class InterpretBenchmark {
+
+    public enum Form {
+        SHORT, LONG
+    }
+
+    /**
+     * The number of flags registered by the interpreter
+     */
+    @Param({"8", "4096"})
+    public int flags;
+
+    /**
+     * The number of flags present in the interpreted arguments, each flag is followed by its argument
+     */
+    @Param({"4", "100000"})
+    public int occurrences;
+
+    @Param({"SHORT", "LONG"})
+    public Form form;
+
+    private ParameterInterpreter interpreter;
+    private String[] args;
+
+    @Setup
+    public void setup() {
+        Flag[] registered = new Flag[flags];
+        for (int i = 0; i < flags; i++) {
+            registered[i] = new FunctionFlag<>("flag" + i, "f" + i, "Benchmark flag", argument -> argument);
+        }
+        interpreter = new ParameterInterpreter(registered);
+
+        args = new String[occurrences * 2];
+        for (int i = 0; i < occurrences; i++) {
+            int flag = i % flags;
+            args[i * 2] = (form == Form.SHORT) ? "-f" + flag : "--flag" + flag;
+            args[i * 2 + 1] = "value" + i;
+        }
+    }
+
+    @Benchmark
+    public ParameterInterpretation interpret() {
+        return interpreter.interpret(args);
+    }
+
+}
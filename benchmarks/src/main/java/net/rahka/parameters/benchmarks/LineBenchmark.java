@@ -0,0 +1,65 @@
+package net.rahka.parameters.benchmarks;
+
+import net.rahka.parameters.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link ParameterInterpreter#interpret(String)}, which tokenizes a command line in a single pass, with the
+ * naive approach of splitting the line with a regular expression and interpreting the resulting array.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class LineBenchmark {
+
+    /**
+     * The number of flags in the command line, each flag is followed by its argument
+     */
+    @Param({"4", "1000"})
+    public int occurrences;
+
+    private ParameterInterpreter interpreter;
+    private String line;
+
+    @Setup
+    public void setup() {
+        interpreter = new ParameterInterpreter(
+                new IntFlag("int", "i", "Benchmark flag"),
+                new FunctionFlag<>("name", "n", "Benchmark flag", argument -> argument),
+                new Flag("simple", "s", "Benchmark flag")
+        );
+
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < occurrences; i++) {
+            switch (i % 3) {
+                case 0:
+                    builder.append("-i ").append(i);
+                    break;
+                case 1:
+                    builder.append("--name value").append(i);
+                    break;
+                default:
+                    builder.append("-s");
+                    break;
+            }
+            builder.append(' ');
+        }
+        line = builder.toString();
+    }
+
+    @Benchmark
+    public ParameterInterpretation tokenize() {
+        return interpreter.interpret(line);
+    }
+
+    @Benchmark
+    public ParameterInterpretation splitThenInterpret() {
+        return interpreter.interpret(line.trim().split("\\s+"));
+    }
+
+}
@@ -0,0 +1,66 @@
+package net.rahka.parameters.benchmarks;
+
+import net.rahka.parameters.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link ParameterInterpreter#interpret(String[])}, which creates a new interpretation every time, with
+ * {@link ParameterInterpreter#interpret(String[], ParameterInterpretation)}, which fills the same interpretation
+ * again. Run with the GC profiler, the reusing benchmark should report a normalized allocation rate of about 0 B/op.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ReuseBenchmark {
+
+    /**
+     * The number of flags registered by the interpreter
+     */
+    @Param({"8", "256"})
+    public int flags;
+
+    private ParameterInterpreter interpreter;
+    private ParameterInterpretation reuse;
+    private String[] args;
+
+    @Setup
+    public void setup() {
+        Flag[] registered = new Flag[flags];
+        for (int i = 0; i < flags; i++) {
+            switch (i % 4) {
+                case 0:
+                    registered[i] = new IntFlag("int" + i, "i" + i, "Benchmark flag");
+                    break;
+                case 1:
+                    registered[i] = new LongFlag("long" + i, "l" + i, "Benchmark flag");
+                    break;
+                case 2:
+                    registered[i] = new BooleanFlag("boolean" + i, "b" + i, "Benchmark flag");
+                    break;
+                default:
+                    registered[i] = new Flag("simple" + i, "s" + i, "Benchmark flag");
+                    break;
+            }
+        }
+        interpreter = new ParameterInterpreter(registered).compile();
+
+        args = new String[] {"-i0", "42", "--long1", "123456789", "-b2", "true", "-s3", "-i4", "7", "unknown"};
+        reuse = interpreter.interpret(args, null);
+    }
+
+    @Benchmark
+    public ParameterInterpretation interpret() {
+        return interpreter.interpret(args);
+    }
+
+    @Benchmark
+    public ParameterInterpretation interpretReusing() {
+        return interpreter.interpret(args, reuse);
+    }
+
+}
@@ -0,0 +1,487 @@
+package net.rahka.parameters.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Generates the binding code for types annotated with {@code net.rahka.parameters.Parameters}. For a type named
+ * {@code Options} a class named {@code OptionsParameters} is generated in the same package, nested types are named
+ * after all their enclosing types joined by '_'. The generated class has the following static methods:
+ * <ul>
+ *     <li>{@code interpreter()} creates a new interpreter with a flag for every field annotated with
+ *     {@code net.rahka.parameters.Parameter}, in the order the fields are declared</li>
+ *     <li>{@code bind(interpretation)} creates a new instance of the type from an interpretation, for classes this
+ *     requires a constructor without parameters</li>
+ *     <li>{@code bind(interpretation, target)} sets the fields of an existing instance, only for classes</li>
+ * </ul>
+ * The processor only depends on the compiler API, so it works with any version of the parameters artifact that has
+ * the annotations. Records are recognized by the name of their element kind since the processor targets Java 11.
+ */
+public class ParametersProcessor extends AbstractProcessor {
+
+    private static final String PARAMETERS = "net.rahka.parameters.Parameters";
+    private static final String PARAMETER = "net.rahka.parameters.Parameter";
+    private static final String PACKAGE = "net.rahka.parameters.";
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return Set.of(PARAMETERS, PARAMETER);
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment round) {
+        for (TypeElement annotation : annotations) {
+            String name = annotation.getQualifiedName().toString();
+            for (Element element : round.getElementsAnnotatedWith(annotation)) {
+                if (name.equals(PARAMETERS)) {
+                    process((TypeElement) element);
+                } else if (annotation(element.getEnclosingElement(), PARAMETERS) == null) {
+                    error(element, "@Parameter can only be used in types annotated with @Parameters");
+                }
+            }
+        }
+
+        return true;
+    }
+
+    private void process(TypeElement type) {
+        boolean record = type.getKind().name().equals("RECORD");
+        if (type.getKind() != ElementKind.CLASS && !record) {
+            error(type, "@Parameters can only be used on classes and records");
+            return;
+        }
+
+        if (type.getNestingKind() == NestingKind.MEMBER && !type.getModifiers().contains(Modifier.STATIC)) {
+            error(type, "@Parameters cannot be used on inner classes, make the class static");
+            return;
+        }
+
+        if (type.getNestingKind() == NestingKind.LOCAL || type.getNestingKind() == NestingKind.ANONYMOUS) {
+            error(type, "@Parameters cannot be used on local or anonymous classes");
+            return;
+        }
+
+        List<Binding> bindings = new ArrayList<>();
+        List<VariableElement> components = new ArrayList<>();
+        boolean valid = true;
+        for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+            if (field.getModifiers().contains(Modifier.STATIC)) {
+                if (annotation(field, PARAMETER) != null) {
+                    error(field, "@Parameter cannot be used on static fields");
+                    valid = false;
+                }
+                continue;
+            }
+
+            components.add(field);
+            AnnotationMirror annotation = annotation(field, PARAMETER);
+            if (annotation == null) {
+                continue;
+            }
+
+            if (!record && field.getModifiers().contains(Modifier.PRIVATE)) {
+                error(field, "@Parameter cannot be used on private fields");
+                valid = false;
+                continue;
+            }
+
+            if (!record && field.getModifiers().contains(Modifier.FINAL)) {
+                error(field, "@Parameter cannot be used on final fields");
+                valid = false;
+                continue;
+            }
+
+            Binding binding = binding(field, annotation, bindings.size());
+            if (binding == null) {
+                valid = false;
+            } else if (!isUnique(binding, bindings)) {
+                valid = false;
+            } else {
+                bindings.add(binding);
+            }
+        }
+
+        if (valid) {
+            write(type, record, bindings, components);
+        }
+    }
+
+    private Binding binding(VariableElement field, AnnotationMirror annotation, int index) {
+        String name = value(annotation, "name", field.getSimpleName().toString());
+        String flag = value(annotation, "flag", name);
+        String description = value(annotation, "description", "");
+        boolean required = Boolean.TRUE.equals(annotationValue(annotation, "required"));
+
+        Kind kind = kind(field.asType());
+        if (kind == null) {
+            error(field, "@Parameter cannot be used on fields of type " + field.asType());
+            return null;
+        }
+
+        if (kind == Kind.SWITCH && required) {
+            error(field, "A boolean flag has no argument and therefore cannot be required");
+            return null;
+        }
+
+        return new Binding(field, kind, name, flag, description, required, "FLAG_" + index);
+    }
+
+    /**
+     * Reports an error if the name or flag of the binding is the name or flag of an earlier binding. Names and flags
+     * are matched against each other as well, since the interpreter looks both up in the same table.
+     */
+    private boolean isUnique(Binding binding, List<Binding> bindings) {
+        for (Binding other : bindings) {
+            for (String key : new String[] {binding.name, binding.flag}) {
+                if (key.equals(other.name) || key.equals(other.flag)) {
+                    error(binding.field, "@Parameter name or flag (" + key + ") is already used by " + other.field.getSimpleName());
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    private static Kind kind(TypeMirror type) {
+        switch (type.getKind()) {
+            case INT:
+                return Kind.INT;
+            case LONG:
+                return Kind.LONG;
+            case DOUBLE:
+                return Kind.DOUBLE;
+            case BOOLEAN:
+                return Kind.SWITCH;
+            case DECLARED:
+                Element element = ((DeclaredType) type).asElement();
+                if (element.getKind() == ElementKind.ENUM) {
+                    return Kind.ENUM;
+                }
+
+                switch (((TypeElement) element).getQualifiedName().toString()) {
+                    case "java.lang.Integer":
+                        return Kind.BOXED_INT;
+                    case "java.lang.Long":
+                        return Kind.BOXED_LONG;
+                    case "java.lang.Double":
+                        return Kind.BOXED_DOUBLE;
+                    case "java.lang.Boolean":
+                        return Kind.BOXED_SWITCH;
+                    case "java.lang.String":
+                        return Kind.STRING;
+                    default:
+                        return null;
+                }
+            default:
+                return null;
+        }
+    }
+
+    private void write(TypeElement type, boolean record, List<Binding> bindings, List<VariableElement> components) {
+        String packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        String typeName = type.getQualifiedName().toString();
+        String className = generatedName(type);
+        String prefix = value(annotation(type, PARAMETERS), "prefix", "-");
+
+        StringBuilder source = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+
+        source.append("/**\n");
+        source.append(" * Binds interpretations to {@link ").append(typeName).append("}, generated from its annotations.\n");
+        source.append(" */\n");
+        source.append("public final class ").append(className).append(" {\n\n");
+
+        for (Binding binding : bindings) {
+            source.append("    private static final ").append(PACKAGE).append("FlagHandle<").append(binding.kind.handleType(binding.field.asType())).append("> ");
+            source.append(binding.constant).append(";\n");
+        }
+        if (!bindings.isEmpty()) {
+            source.append("\n    static {\n");
+            source.append("        ").append(PACKAGE).append("ParameterInterpreter interpreter = interpreter();\n");
+            for (Binding binding : bindings) {
+                source.append("        ").append(binding.constant).append(" = interpreter.handle(").append(literal(binding.name)).append(");\n");
+            }
+            source.append("    }\n");
+        }
+
+        source.append("\n    private ").append(className).append("() {\n    }\n");
+
+        source.append("\n    /**\n     * Creates a new interpreter with the flags of {@link ").append(typeName).append("}\n     */\n");
+        source.append("    public static ").append(PACKAGE).append("ParameterInterpreter interpreter() {\n");
+        source.append("        return new ").append(PACKAGE).append("ParameterInterpreter(").append(literal(prefix));
+        for (Binding binding : bindings) {
+            source.append(",\n                ").append(binding.flag());
+        }
+        source.append("\n        );\n    }\n");
+
+        if (record) {
+            source.append("\n    /**\n     * Creates a new {@link ").append(typeName).append("} from an interpretation\n     */\n");
+            source.append("    public static ").append(typeName).append(" bind(").append(PACKAGE).append("ParameterInterpretation interpretation) {\n");
+            source.append("        return new ").append(typeName).append("(");
+            for (int i = 0; i < components.size(); i++) {
+                VariableElement component = components.get(i);
+                source.append((i == 0) ? "\n                " : ",\n                ");
+                Binding binding = find(bindings, component);
+                source.append((binding == null) ? defaultValue(component.asType()) : binding.get());
+            }
+            source.append("\n        );\n    }\n");
+        } else {
+            if (hasDefaultConstructor(type)) {
+                source.append("\n    /**\n     * Creates a new {@link ").append(typeName).append("} and binds an interpretation to it\n     */\n");
+                source.append("    public static ").append(typeName).append(" bind(").append(PACKAGE).append("ParameterInterpretation interpretation) {\n");
+                source.append("        ").append(typeName).append(" target = new ").append(typeName).append("();\n");
+                source.append("        bind(interpretation, target);\n");
+                source.append("        return target;\n    }\n");
+            }
+
+            source.append("\n    /**\n     * Sets the fields of the target whose flags are present in the interpretation\n     */\n");
+            source.append("    public static void bind(").append(PACKAGE).append("ParameterInterpretation interpretation, ").append(typeName).append(" target) {\n");
+            for (Binding binding : bindings) {
+                source.append("        if (interpretation.has(").append(binding.constant).append(")) {\n");
+                source.append("            target.").append(binding.field.getSimpleName()).append(" = ").append(binding.get()).append(";\n");
+                source.append("        }\n");
+            }
+            source.append("    }\n");
+        }
+
+        source.append("\n}\n");
+
+        String qualifiedName = packageName.isEmpty() ? className : packageName + "." + className;
+        try (Writer writer = processingEnv.getFiler().createSourceFile(qualifiedName, type).openWriter()) {
+            writer.write(source.toString());
+        } catch (IOException e) {
+            error(type, "Could not write " + qualifiedName + ": " + e.getMessage());
+        }
+    }
+
+    private boolean hasDefaultConstructor(TypeElement type) {
+        if (type.getModifiers().contains(Modifier.ABSTRACT)) {
+            return false;
+        }
+
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            if (constructor.getParameters().isEmpty() && !constructor.getModifiers().contains(Modifier.PRIVATE)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static Binding find(List<Binding> bindings, VariableElement field) {
+        for (Binding binding : bindings) {
+            if (binding.field.equals(field)) {
+                return binding;
+            }
+        }
+
+        return null;
+    }
+
+    private static String generatedName(TypeElement type) {
+        StringBuilder name = new StringBuilder(type.getSimpleName());
+        for (Element enclosing = type.getEnclosingElement(); enclosing instanceof TypeElement; enclosing = enclosing.getEnclosingElement()) {
+            name.insert(0, '_').insert(0, enclosing.getSimpleName());
+        }
+
+        return name.append("Parameters").toString();
+    }
+
+    private static String defaultValue(TypeMirror type) {
+        switch (type.getKind()) {
+            case BOOLEAN:
+                return "false";
+            case BYTE:
+            case SHORT:
+            case INT:
+            case LONG:
+            case FLOAT:
+            case DOUBLE:
+                return "(" + type + ") 0";
+            case CHAR:
+                return "'\\0'";
+            default:
+                return "null";
+        }
+    }
+
+    private static AnnotationMirror annotation(Element element, String name) {
+        for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+            if (((TypeElement) annotation.getAnnotationType().asElement()).getQualifiedName().contentEquals(name)) {
+                return annotation;
+            }
+        }
+
+        return null;
+    }
+
+    private static Object annotationValue(AnnotationMirror annotation, String name) {
+        for (ExecutableElement element : annotation.getElementValues().keySet()) {
+            if (element.getSimpleName().contentEquals(name)) {
+                return annotation.getElementValues().get(element).getValue();
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns the string value of an annotation, or the alternative if the value is not set or empty
+     */
+    private static String value(AnnotationMirror annotation, String name, String alt) {
+        Object value = annotationValue(annotation, name);
+        return (value == null || value.toString().isEmpty()) ? alt : value.toString();
+    }
+
+    private static String literal(String value) {
+        StringBuilder literal = new StringBuilder("\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    literal.append("\\\"");
+                    break;
+                case '\\':
+                    literal.append("\\\\");
+                    break;
+                case '\n':
+                    literal.append("\\n");
+                    break;
+                case '\r':
+                    literal.append("\\r");
+                    break;
+                case '\t':
+                    literal.append("\\t");
+                    break;
+                default:
+                    if (c < ' ') {
+                        literal.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        literal.append(c);
+                    }
+            }
+        }
+
+        return literal.append('"').toString();
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+    /**
+     * How a field type is turned into a flag and read from an interpretation
+     */
+    private enum Kind {
+        INT, BOXED_INT, LONG, BOXED_LONG, DOUBLE, BOXED_DOUBLE, SWITCH, BOXED_SWITCH, STRING, ENUM;
+
+        String handleType(TypeMirror type) {
+            switch (this) {
+                case INT:
+                case BOXED_INT:
+                    return "java.lang.Integer";
+                case LONG:
+                case BOXED_LONG:
+                    return "java.lang.Long";
+                case DOUBLE:
+                case BOXED_DOUBLE:
+                    return "java.lang.Double";
+                case SWITCH:
+                case BOXED_SWITCH:
+                    return "java.lang.Object";
+                default:
+                    return type.toString();
+            }
+        }
+
+    }
+
+    private static final class Binding {
+
+        final VariableElement field;
+        final Kind kind;
+        final String name;
+        final String flag;
+        final String description;
+        final boolean required;
+        final String constant;
+
+        Binding(VariableElement field, Kind kind, String name, String flag, String description, boolean required, String constant) {
+            this.field = field;
+            this.kind = kind;
+            this.name = name;
+            this.flag = flag;
+            this.description = description;
+            this.required = required;
+            this.constant = constant;
+        }
+
+        /**
+         * Returns the expression that creates the flag
+         */
+        String flag() {
+            String arguments = literal(name) + ", " + literal(flag) + ", " + literal(description);
+            switch (kind) {
+                case INT:
+                case BOXED_INT:
+                    return "new " + PACKAGE + "IntFlag(" + arguments + ", " + required + ")";
+                case LONG:
+                case BOXED_LONG:
+                    return "new " + PACKAGE + "LongFlag(" + arguments + ", " + required + ")";
+                case DOUBLE:
+                case BOXED_DOUBLE:
+                    return "new " + PACKAGE + "DoubleFlag(" + arguments + ", " + required + ")";
+                case SWITCH:
+                case BOXED_SWITCH:
+                    return "new " + PACKAGE + "Flag(" + arguments + ")";
+                case STRING:
+                    return "new " + PACKAGE + "FunctionFlag<java.lang.String>(" + arguments + ", arg -> arg, " + required + ")";
+                default:
+                    String type = field.asType().toString();
+                    return "new " + PACKAGE + "FunctionFlag<" + type + ">(" + arguments + ", " + type + "::valueOf, " + required + ")";
+            }
+        }
+
+        /**
+         * Returns the expression that reads the field's value from an interpretation
+         */
+        String get() {
+            switch (kind) {
+                case INT:
+                    return "interpretation.getInt(" + constant + ", 0)";
+                case LONG:
+                    return "interpretation.getLong(" + constant + ", 0L)";
+                case DOUBLE:
+                    return "interpretation.getDouble(" + constant + ", 0.0)";
+                case SWITCH:
+                    return "interpretation.has(" + constant + ")";
+                case BOXED_SWITCH:
+                    return "java.lang.Boolean.valueOf(interpretation.has(" + constant + "))";
+                default:
+                    return "interpretation.get(" + constant + ")";
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,253 @@
+package net.rahka.parameters.processor;
+
+import net.rahka.parameters.CommandInterpretation;
+import net.rahka.parameters.CommandRouter;
+import net.rahka.parameters.Flag;
+import net.rahka.parameters.IntFlag;
+import net.rahka.parameters.MissingFlagException;
+import net.rahka.parameters.ParameterInterpretation;
+import net.rahka.parameters.ParameterInterpreter;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.tools.*;
+import java.io.File;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static junit.framework.TestCase.*;
+import static org.junit.Assume.assumeTrue;
+
+public class ParametersProcessorTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+
+    @Test
+    public void processor_bindsFieldsOfClass() throws Exception {
+        ClassLoader loader = compile("test.Options",
+                "package test;\n" +
+                "import net.rahka.parameters.*;\n" +
+                "@Parameters\n" +
+                "public class Options {\n" +
+                "    public enum Mode { FAST, SLOW }\n" +
+                "    @Parameter(flag = \"c\", required = true) int count;\n" +
+                "    @Parameter(name = \"size\", flag = \"s\") long bytes = 7;\n" +
+                "    @Parameter(flag = \"r\") double ratio;\n" +
+                "    @Parameter(flag = \"v\") boolean verbose;\n" +
+                "    @Parameter(flag = \"n\", description = \"The \\\"name\\\"\") String name = \"none\";\n" +
+                "    @Parameter(flag = \"m\") Mode mode;\n" +
+                "    @Parameter(flag = \"l\") Integer limit;\n" +
+                "}\n");
+
+        Class<?> binder = loader.loadClass("test.OptionsParameters");
+        ParameterInterpreter interpreter = (ParameterInterpreter) binder.getMethod("interpreter").invoke(null);
+        ParameterInterpretation interpretation = interpreter.interpret(new String[] {"4", "-r", "0.5", "-v", "-m", "SLOW", "-l", "9"});
+
+        Object options = binder.getMethod("bind", ParameterInterpretation.class).invoke(null, interpretation);
+
+        assertEquals(4, field(options, "count"));
+        assertEquals(7L, field(options, "bytes"));
+        assertEquals(0.5, field(options, "ratio"));
+        assertEquals(true, field(options, "verbose"));
+        assertEquals("none", field(options, "name"));
+        assertEquals("SLOW", field(options, "mode").toString());
+        assertEquals(9, field(options, "limit"));
+    }
+
+    @Test
+    public void processor_usesNamesOfAnnotations() throws Exception {
+        ClassLoader loader = compile("test.Names",
+                "package test;\n" +
+                "import net.rahka.parameters.*;\n" +
+                "@Parameters(prefix = \"/\")\n" +
+                "public class Names {\n" +
+                "    @Parameter(name = \"size\", flag = \"s\") long bytes;\n" +
+                "    @Parameter String name;\n" +
+                "}\n");
+
+        Class<?> binder = loader.loadClass("test.NamesParameters");
+        ParameterInterpreter interpreter = (ParameterInterpreter) binder.getMethod("interpreter").invoke(null);
+        ParameterInterpretation interpretation = interpreter.interpret(new String[] {"/s", "5", "//name", "Erik"});
+
+        assertEquals(5L, interpretation.getLong("size", 0));
+        assertEquals("Erik", interpretation.get("name"));
+    }
+
+    @Test
+    public void processor_bindsComponentsOfRecord() throws Exception {
+        assumeTrue(Runtime.version().feature() >= 16);
+
+        ClassLoader loader = compile("test.Settings",
+                "package test;\n" +
+                "import net.rahka.parameters.*;\n" +
+                "@Parameters\n" +
+                "public record Settings(@Parameter(flag = \"p\") int port, String unbound, @Parameter(flag = \"h\") String host, @Parameter(flag = \"d\") boolean debug) {\n" +
+                "}\n");
+
+        Class<?> binder = loader.loadClass("test.SettingsParameters");
+        ParameterInterpreter interpreter = (ParameterInterpreter) binder.getMethod("interpreter").invoke(null);
+        Method bind = binder.getMethod("bind", ParameterInterpretation.class);
+
+        Object settings = bind.invoke(null, interpreter.interpret(new String[] {"-p", "8080", "-d"}));
+
+        assertEquals("Settings[port=8080, unbound=null, host=null, debug=true]", settings.toString());
+    }
+
+    @Test
+    public void bind_throws_whenRequiredFlagIsMissing() throws Exception {
+        ClassLoader loader = compile("test.Required",
+                "package test;\n" +
+                "import net.rahka.parameters.*;\n" +
+                "@Parameters\n" +
+                "public class Required {\n" +
+                "    @Parameter(flag = \"c\", required = true) int count;\n" +
+                "}\n");
+
+        ParameterInterpreter interpreter = (ParameterInterpreter) loader.loadClass("test.RequiredParameters").getMethod("interpreter").invoke(null);
+
+        try {
+            interpreter.interpret(new String[0]);
+            fail();
+        } catch (MissingFlagException e) {
+            //Expected
+        }
+    }
+
+    @Test
+    public void processor_reportsError_whenFieldIsPrivate() throws Exception {
+        assertFalse(tryCompile("test.Private",
+                "package test;\n" +
+                "import net.rahka.parameters.*;\n" +
+                "@Parameters\n" +
+                "public class Private {\n" +
+                "    @Parameter private int count;\n" +
+                "}\n"));
+
+        assertTrue(hasError("@Parameter cannot be used on private fields"));
+    }
+
+    @Test
+    public void processor_reportsError_whenTypeIsNotSupported() throws Exception {
+        assertFalse(tryCompile("test.Unsupported",
+                "package test;\n" +
+                "import net.rahka.parameters.*;\n" +
+                "@Parameters\n" +
+                "public class Unsupported {\n" +
+                "    @Parameter java.util.List<String> names;\n" +
+                "}\n"));
+
+        assertTrue(hasError("@Parameter cannot be used on fields of type java.util.List<java.lang.String>"));
+    }
+
+    @Test
+    public void processor_reportsError_whenBooleanIsRequired() throws Exception {
+        assertFalse(tryCompile("test.RequiredSwitch",
+                "package test;\n" +
+                "import net.rahka.parameters.*;\n" +
+                "@Parameters\n" +
+                "public class RequiredSwitch {\n" +
+                "    @Parameter(required = true) boolean verbose;\n" +
+                "}\n"));
+
+        assertTrue(hasError("A boolean flag has no argument and therefore cannot be required"));
+    }
+
+    @Test
+    public void processor_reportsError_whenFlagIsDeclaredTwice() throws Exception {
+        assertFalse(tryCompile("test.Duplicate",
+                "package test;\n" +
+                "import net.rahka.parameters.*;\n" +
+                "@Parameters\n" +
+                "public class Duplicate {\n" +
+                "    @Parameter(flag = \"c\") int count;\n" +
+                "    @Parameter(name = \"total\", flag = \"c\") int total;\n" +
+                "}\n"));
+
+        assertTrue(hasError("@Parameter name or flag (c) is already used by count"));
+    }
+
+    @Test
+    public void handles_readRightSlots_whenInterpreterIsCommandOfRouter() throws Exception {
+        ClassLoader loader = compile("test.Build",
+                "package test;\n" +
+                "import net.rahka.parameters.*;\n" +
+                "@Parameters\n" +
+                "public class Build {\n" +
+                "    @Parameter(flag = \"t\") int threads;\n" +
+                "    @Parameter(flag = \"o\") String output;\n" +
+                "}\n");
+
+        Class<?> binder = loader.loadClass("test.BuildParameters");
+        CommandRouter router = new CommandRouter(new Flag("verbose", "v", "Flag description"), new IntFlag("level", "l", "Flag description"));
+        router.addCommand("build", () -> {
+            try {
+                return (ParameterInterpreter) binder.getMethod("interpreter").invoke(null);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        CommandInterpretation interpretation = router.interpret(new String[] {"-v", "-l", "2", "build", "-t", "4", "-o", "out"});
+        Object build = binder.getMethod("bind", ParameterInterpretation.class).invoke(null, interpretation.getInterpretation());
+
+        assertEquals(4, field(build, "threads"));
+        assertEquals("out", field(build, "output"));
+    }
+
+    private ClassLoader compile(String name, String source) throws Exception {
+        assertTrue(diagnostics.getDiagnostics().toString(), tryCompile(name, source));
+        return new URLClassLoader(new URL[] {folder.getRoot().toPath().resolve("classes").toUri().toURL()}, getClass().getClassLoader());
+    }
+
+    private boolean tryCompile(String name, String source) throws Exception {
+        Path sources = folder.getRoot().toPath().resolve("sources");
+        Path classes = folder.getRoot().toPath().resolve("classes");
+        Files.createDirectories(classes);
+
+        Path file = sources.resolve(name.replace('.', File.separatorChar) + ".java");
+        Files.createDirectories(file.getParent());
+        Files.write(file, source.getBytes(StandardCharsets.UTF_8));
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        try (StandardJavaFileManager files = compiler.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8)) {
+            List<String> options = new ArrayList<>();
+            options.add("-classpath");
+            options.add(System.getProperty("java.class.path"));
+            options.add("-d");
+            options.add(classes.toString());
+            options.add("-s");
+            options.add(classes.toString());
+
+            JavaCompiler.CompilationTask task = compiler.getTask(null, files, diagnostics, options, null, files.getJavaFileObjects(file.toFile()));
+            task.setProcessors(List.of(new ParametersProcessor()));
+            return task.call();
+        }
+    }
+
+    private boolean hasError(String message) {
+        for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+            if (diagnostic.getKind() == Diagnostic.Kind.ERROR && diagnostic.getMessage(null).equals(message)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static Object field(Object target, String name) throws NoSuchFieldException, IllegalAccessException {
+        java.lang.reflect.Field field = target.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        return field.get(target);
+    }
+
+}
@@ -0,0 +1,58 @@
+package net.rahka.parameters;
+
+/**
+ * A flag that requires a argument and parses it into a boolean. It behaves like a {@link FunctionFlag} with the parser
+ * {@code Boolean::parseBoolean}, meaning that the argument "true" in any case is parsed to true and anything else is
+ * parsed to false, but the value is stored without boxing, use
+ * {@link ParameterInterpretation#getBoolean(String, boolean)} to retrieve it.
+ * <p>
+ * A flag that only signifies something by being present should use {@link Flag} instead.
+ */
+public class BooleanFlag extends PrimitiveFlag {
+
+    /**
+     * @param name        the name of the flag
+     * @param flag        the short-hand name of the flag
+     * @param description the description of the flag
+     * @param required    whether or not this flag is required
+     */
+    public BooleanFlag(String name, String flag, String description, boolean required) {
+        super(name, flag, description, required);
+    }
+
+    /**
+     * @param name        the name of the flag
+     * @param flag        the short-hand name of the flag
+     * @param description the description of the flag
+     */
+    public BooleanFlag(String name, String flag, String description) {
+        this(name, flag, description, false);
+    }
+
+    @Override
+    long parseBits(CharSequence arg) {
+        String expected = "true";
+        if (arg.length() != expected.length()) {
+            return 0;
+        }
+
+        for (int i = 0; i < expected.length(); i++) {
+            if (Character.toLowerCase(arg.charAt(i)) != expected.charAt(i)) {
+                return 0;
+            }
+        }
+
+        return 1;
+    }
+
+    @Override
+    Object box(long bits) {
+        return bits != 0;
+    }
+
+    @Override
+    boolean toBoolean(long bits) {
+        return bits != 0;
+    }
+
+}
@@ -0,0 +1,54 @@
+package net.rahka.parameters;
+
+/**
+ * The statistics of the interpretation cache of a {@link ParameterInterpreter}, see
+ * {@link ParameterInterpreter#getCacheStatistics()}. The statistics are a snapshot taken when they were retrieved.
+ */
+public final class CacheStatistics {
+
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final int size;
+
+    CacheStatistics(long hits, long misses, long evictions, int size) {
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.size = size;
+    }
+
+    /**
+     * Returns the number of interpretations that were returned from the cache
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of interpretations that were not in the cache and had to be interpreted
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Returns the number of interpretations that were evicted because the cache was full
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Returns the number of interpretations in the cache
+     */
+    public int getSize() {
+        return size;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStatistics{hits=" + hits + ", misses=" + misses + ", evictions=" + evictions + ", size=" + size + "}";
+    }
+
+}
@@ -0,0 +1,42 @@
+package net.rahka.parameters;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The outcome of {@link ParameterInterpreter#interpretCollecting(String[])}, an interpretation of every argument that
+ * could be interpreted together with the diagnostics of all problems that were found.
+ */
+public final class CollectedInterpretation {
+
+    private final ParameterInterpretation interpretation;
+    private final List<Diagnostic> diagnostics;
+
+    CollectedInterpretation(ParameterInterpretation interpretation, List<Diagnostic> diagnostics) {
+        this.interpretation = interpretation;
+        this.diagnostics = Collections.unmodifiableList(diagnostics);
+    }
+
+    /**
+     * Returns whether or not there were no problems
+     */
+    public boolean isSuccess() {
+        return diagnostics.isEmpty();
+    }
+
+    /**
+     * Returns the interpretation. If there were problems then the flags with problems are not present in it, and
+     * required flags may be missing.
+     */
+    public ParameterInterpretation getInterpretation() {
+        return interpretation;
+    }
+
+    /**
+     * Returns the diagnostics of all problems in the order they were found, empty if there were none
+     */
+    public List<Diagnostic> getDiagnostics() {
+        return diagnostics;
+    }
+
+}
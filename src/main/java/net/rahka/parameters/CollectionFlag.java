@@ -4,10 +4,13 @@ import java.util.Collection;
 
 /**
  * This class is a Flag that only accepts arguments that are contained in a collection. It uses {@link Object#toString}
- * in order to check for matches. The matching is case-sensitive.
+ * in order to check for matches. The matching is case-sensitive unless the flag is constructed to ignore case.
  * <p>
  * If more than one object matches a argument then only the the first object encountered by the collection's
  * iterator is parsed.
+ * <p>
+ * The collection is indexed by the string representation of its objects the first time an argument is parsed, changes
+ * made to the collection after that are not seen by the flag.
  */
 public class CollectionFlag<T> extends Flag {
 
@@ -16,16 +19,44 @@ public class CollectionFlag<T> extends Flag {
      */
     private final Collection<T> collection;
 
+    /**
+     * Whether or not arguments are matched without regard to case
+     */
+    private final boolean ignoreCase;
+
+    /**
+     * The index of the collection, it is built when the first argument is parsed
+     */
+    private volatile OptionIndex<T> index;
+
+    /**
+     * The trie of the options used for completion, created when first needed
+     */
+    private volatile CompletionTrie completions;
+
     /**
      * @param name        the name of flag
      * @param flag        the short-hand name of the flag
      * @param description the description of the flag
      * @param collection  the list of accepted arguments
      * @param required    whether or not the flag is required
+     * @param ignoreCase  whether or not arguments are matched without regard to case
      */
-    public CollectionFlag(String name, String flag, String description, Collection<T> collection, boolean required) {
+    public CollectionFlag(String name, String flag, String description, Collection<T> collection, boolean required, boolean ignoreCase) {
         super(name, flag, description, required);
         this.collection = collection;
+        this.ignoreCase = ignoreCase;
+    }
+
+    /**
+     * @param name        the name of flag
+     * @param flag        the short-hand name of the flag
+     * @param description the description of the flag
+     * @param collection  the list of accepted arguments
+     * @param required    whether or not the flag is required
+     */
+    public CollectionFlag(String name, String flag, String description, Collection<T> collection, boolean required) {
+        this(name, flag, description, collection, required, false);
     }
 
     /**
@@ -45,13 +76,51 @@ public class CollectionFlag<T> extends Flag {
 
     @Override
     protected Object parseArgument(String arg) throws ParameterException {
-        for (T t : collection) {
-            if (t.toString().equals(arg)) {
-                return t;
-            }
+        OptionIndex<T> index = index();
+
+        T t = index.get(arg);
+        if (t != null || index.contains(arg)) {
+            return t;
         }
 
         throw new NonMatchingArgumentException(arg, collection);
     }
 
+    @Override
+    Collection<?> options() {
+        return collection;
+    }
+
+    @Override
+    boolean accepts(String arg) {
+        return index().contains(arg);
+    }
+
+    @Override
+    CompletionTrie optionTrie() {
+        CompletionTrie completions = this.completions;
+        if (completions == null) {
+            completions = new CompletionTrie(ignoreCase);
+            for (Object option : options()) {
+                completions.add(option.toString());
+            }
+            this.completions = completions;
+        }
+
+        return completions;
+    }
+
+    private OptionIndex<T> index() {
+        OptionIndex<T> index = this.index;
+        if (index == null) {
+            index = new OptionIndex<>(ignoreCase);
+            for (T t : collection) {
+                index.add(t, t);
+            }
+            this.index = index;
+        }
+
+        return index;
+    }
+
 }
\ No newline at end of file
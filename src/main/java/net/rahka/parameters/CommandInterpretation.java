@@ -0,0 +1,31 @@
+package net.rahka.parameters;
+
+/**
+ * The outcome of {@link CommandRouter#interpret(String[])}, the name of the command that was used and the
+ * interpretation of the other arguments by the command's interpreter.
+ */
+public final class CommandInterpretation {
+
+    private final String command;
+    private final ParameterInterpretation interpretation;
+
+    CommandInterpretation(String command, ParameterInterpretation interpretation) {
+        this.command = command;
+        this.interpretation = interpretation;
+    }
+
+    /**
+     * Returns the name of the command
+     */
+    public String getCommand() {
+        return command;
+    }
+
+    /**
+     * Returns the interpretation of the arguments other than the command
+     */
+    public ParameterInterpretation getInterpretation() {
+        return interpretation;
+    }
+
+}
@@ -0,0 +1,159 @@
+package net.rahka.parameters;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Dispatches arguments to one of several commands, the way git dispatches to its subcommands. The first unnamed
+ * argument names the command, and all other arguments are interpreted by the command's interpreter.
+ * <p>
+ * Commands are registered with a supplier of their interpreter, which is only called the first time the command is
+ * used. Registering a command therefore creates no interpreter and no flags, so starting a tool costs the same no
+ * matter how many commands it has. The interpreter of a command inherits the shared flags of the router, which are
+ * added before the command's own flags, so a flag of the command overrides a shared flag with the same name or
+ * short-hand name. A shared flag whose name is overridden can still be given by its short-hand name, and its value is
+ * retrieved by the name like the value of the command's flag. Shared flags can be given both before and after the
+ * command.
+ * <p>
+ * Shared flags are also used to find the command: an argument following a shared flag that expects an argument is
+ * never taken as the command. The router should use the same prefix as the interpreters of its commands.
+ */
+public class CommandRouter {
+
+    /**
+     * The shared flags, used to skip the arguments of shared flags when looking for the command
+     */
+    private final FlagIndex shared;
+
+    private final Map<String, Command> commands = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a new router whose commands inherit the supplied flags. The prefix is used to tell flags apart from
+     * the command, see {@link ParameterInterpreter#ParameterInterpreter(String, Flag...)}.
+     */
+    public CommandRouter(String prefix, Flag... shared) {
+        this.shared = new FlagIndex(prefix, shared.clone());
+    }
+
+    /**
+     * Constructs a new router using the prefix "-" whose commands inherit the supplied flags
+     */
+    public CommandRouter(Flag... shared) {
+        this("-", shared);
+    }
+
+    /**
+     * Registers a command. The supplier is called at most once, the first time the command is used, and the
+     * interpreter it returns is used together with the shared flags for every later use of the command. If a command
+     * with the same name exists then it is replaced.
+     */
+    public void addCommand(String name, Supplier<ParameterInterpreter> supplier) {
+        commands.put(name, new Command(supplier));
+    }
+
+    /**
+     * Returns the names of all commands in alphabetical order
+     */
+    public Set<String> getCommands() {
+        return Collections.unmodifiableSet(new TreeSet<>(commands.keySet()));
+    }
+
+    /**
+     * Returns the interpreter of the command with the given name, which has the shared flags followed by the flags of
+     * the command. The interpreter is created if the command has not been used before.
+     *
+     * @throws IllegalArgumentException if this router has no command with the given name
+     */
+    public ParameterInterpreter getInterpreter(String name) {
+        Command command = commands.get(name);
+        if (command == null) {
+            throw new IllegalArgumentException("No command named (" + name + ")!");
+        }
+
+        return command.interpreter(shared.flags);
+    }
+
+    /**
+     * Finds the command in an array of parameters and interprets all other parameters with the command's interpreter,
+     * see {@link ParameterInterpreter#interpret(String[])}.
+     *
+     * @throws MissingArgumentException     if there is no command
+     * @throws NonMatchingArgumentException if there is no command with the given name
+     */
+    public CommandInterpretation interpret(String[] args) {
+        int position = findCommand(args);
+        if (position < 0) {
+            throw new MissingArgumentException("Missing command!");
+        }
+
+        String name = args[position];
+        Command command = commands.get(name);
+        if (command == null) {
+            throw new NonMatchingArgumentException(name, getCommands());
+        }
+
+        String[] rest = new String[args.length - 1];
+        System.arraycopy(args, 0, rest, 0, position);
+        System.arraycopy(args, position + 1, rest, position, rest.length - position);
+
+        return new CommandInterpretation(name, command.interpreter(shared.flags).interpret(rest));
+    }
+
+    /**
+     * Returns the position of the first unnamed parameter that is not the argument of a shared flag, or -1 if there
+     * is none
+     */
+    private int findCommand(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            int start = shared.nameStart(args[i]);
+            if (start < 0) {
+                return i;
+            }
+
+            int ordinal = shared.find(args[i], start, args[i].length());
+            if (ordinal < 0 && start == shared.prefix.length()) {
+                ordinal = shared.clusterPending(args[i], start);
+            }
+
+            if (ordinal >= 0 && shared.flags[ordinal].expectsArgument()) {
+                i++;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * A registered command whose interpreter is created when it is first needed
+     */
+    private static final class Command {
+
+        private final Supplier<ParameterInterpreter> supplier;
+        private volatile ParameterInterpreter interpreter;
+
+        Command(Supplier<ParameterInterpreter> supplier) {
+            this.supplier = supplier;
+        }
+
+        ParameterInterpreter interpreter(Flag[] shared) {
+            ParameterInterpreter interpreter = this.interpreter;
+            if (interpreter == null) {
+                synchronized (this) {
+                    interpreter = this.interpreter;
+                    if (interpreter == null) {
+                        interpreter = supplier.get().inherit(shared);
+                        this.interpreter = interpreter;
+                    }
+                }
+            }
+
+            return interpreter;
+        }
+
+    }
+
+}
@@ -0,0 +1,86 @@
+package net.rahka.parameters;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Finds the completions of the last argument of a partial command line, see
+ * {@link ParameterInterpreter#complete(String[])}. The arguments before the last one are only matched against the
+ * flags to find out whether the last argument is the argument of a flag, none of them are parsed.
+ */
+final class Completer {
+
+    /**
+     * Returned by {@link #pending(FlagIndex, String[])} if the flags were ended, after which nothing is completed
+     */
+    private static final int ENDED = -2;
+
+    private Completer() {
+    }
+
+    static List<String> complete(FlagIndex index, String[] args) {
+        String word = (args.length == 0) ? "" : args[args.length - 1];
+        List<String> completions = new ArrayList<>();
+
+        int pending = pending(index, args);
+        if (pending == ENDED) {
+            return completions;
+        } else if (pending >= 0) {
+            CompletionTrie options = index.flags[pending].optionTrie();
+            if (options != null) {
+                options.complete(word, "", completions);
+            }
+            return completions;
+        }
+
+        int start = index.nameStart(word);
+        if (start >= 0) {
+            int equals = word.indexOf('=', start);
+            if (equals > start) {
+                int ordinal = index.find(word, start, equals);
+                CompletionTrie options = (ordinal < 0) ? null : index.flags[ordinal].optionTrie();
+                if (options != null) {
+                    options.complete(word.substring(equals + 1), word.substring(0, equals + 1), completions);
+                }
+                return completions;
+            }
+        }
+
+        index.completions().complete(word, "", completions);
+        return completions;
+    }
+
+    /**
+     * Returns the ordinal of the flag that the last argument is the argument of, -1 if there is no such flag or
+     * {@link #ENDED} if the flags were ended before the last argument
+     */
+    private static int pending(FlagIndex index, String[] args) {
+        int pending = -1;
+        for (int i = 0; i < args.length - 1; i++) {
+            String token = args[i];
+            if (pending >= 0) {
+                pending = -1;
+                continue;
+            }
+
+            if (index.isEndOfFlags(token)) {
+                return ENDED;
+            }
+
+            int start = index.nameStart(token);
+            if (start < 0) {
+                continue;
+            }
+
+            int ordinal = index.find(token, start, token.length());
+            if (ordinal >= 0) {
+                pending = index.flags[ordinal].expectsArgument() ? ordinal : -1;
+            } else if (start == index.prefix.length()) {
+                pending = index.clusterPending(token, start);
+            }
+        }
+
+        return pending;
+    }
+
+}
@@ -0,0 +1,108 @@
+package net.rahka.parameters;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * A prefix trie of completion candidates, used by {@link ParameterInterpreter#complete(String[])}. Every node keeps
+ * its children sorted by character, so finding the node of a prefix costs a binary search per character of the
+ * prefix, and the candidates below the node are collected in alphabetical order without sorting them.
+ */
+final class CompletionTrie {
+
+    private static final char[] NO_CHARS = new char[0];
+    private static final Node[] NO_NODES = new Node[0];
+
+    private final Node root = new Node();
+    private final boolean ignoreCase;
+
+    /**
+     * @param ignoreCase whether or not candidates are matched regardless of case
+     */
+    CompletionTrie(boolean ignoreCase) {
+        this.ignoreCase = ignoreCase;
+    }
+
+    /**
+     * Adds a candidate, a candidate that is already in the trie is not added again
+     */
+    void add(String candidate) {
+        String key = normalize(candidate);
+        Node node = root;
+        for (int i = 0; i < key.length(); i++) {
+            node = node.child(key.charAt(i));
+        }
+
+        if (node.candidate == null) {
+            node.candidate = candidate;
+        }
+    }
+
+    /**
+     * Adds every candidate that starts with the prefix to the list, in alphabetical order and each preceded by
+     * {@code before}
+     */
+    void complete(String prefix, String before, List<String> completions) {
+        String key = normalize(prefix);
+        Node node = root;
+        for (int i = 0; i < key.length() && node != null; i++) {
+            node = node.find(key.charAt(i));
+        }
+
+        if (node != null) {
+            collect(node, before, completions);
+        }
+    }
+
+    private static void collect(Node node, String before, List<String> completions) {
+        if (node.candidate != null) {
+            completions.add(before.isEmpty() ? node.candidate : before + node.candidate);
+        }
+
+        for (int i = 0; i < node.size; i++) {
+            collect(node.children[i], before, completions);
+        }
+    }
+
+    private String normalize(String key) {
+        return ignoreCase ? key.toLowerCase(Locale.ROOT) : key;
+    }
+
+    private static final class Node {
+
+        private char[] chars = NO_CHARS;
+        private Node[] children = NO_NODES;
+        private int size;
+        private String candidate;
+
+        Node find(char c) {
+            int i = Arrays.binarySearch(chars, 0, size, c);
+            return (i >= 0) ? children[i] : null;
+        }
+
+        Node child(char c) {
+            int i = Arrays.binarySearch(chars, 0, size, c);
+            if (i >= 0) {
+                return children[i];
+            }
+
+            i = -i - 1;
+            if (size == chars.length) {
+                int capacity = Math.max(2, size * 2);
+                chars = Arrays.copyOf(chars, capacity);
+                children = Arrays.copyOf(children, capacity);
+            }
+            System.arraycopy(chars, i, chars, i + 1, size - i);
+            System.arraycopy(children, i, children, i + 1, size - i);
+
+            Node child = new Node();
+            chars[i] = c;
+            children[i] = child;
+            size++;
+            return child;
+        }
+
+    }
+
+}
@@ -0,0 +1,129 @@
+package net.rahka.parameters;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A rule about which flags may be present together, added to a {@link ParameterInterpreter} with
+ * {@link ParameterInterpreter#addConstraints(Constraint...)}. Constraints refer to flags by their names, which are
+ * resolved when the constraint is added.
+ * <p>
+ * Every constraint is compiled into a bitmask of the ordinals of its flags. After all arguments are interpreted, the
+ * masks are compared with the bitset of present flags and every violated constraint is reported at once by a
+ * {@link ConstraintViolationException}.
+ */
+public final class Constraint {
+
+    /**
+     * The kinds of constraints
+     */
+    public enum Kind {
+
+        /**
+         * If the flag is present then all other flags must be present
+         */
+        REQUIRES,
+
+        /**
+         * If the flag is present then none of the other flags may be present
+         */
+        EXCLUDES,
+
+        /**
+         * Exactly one flag of the group must be present
+         */
+        EXACTLY_ONE,
+
+        /**
+         * At most one flag of the group may be present
+         */
+        AT_MOST_ONE
+
+    }
+
+    private final Kind kind;
+    private final String flag;
+    private final List<String> others;
+
+    private Constraint(Kind kind, String flag, String[] others) {
+        if (others.length == 0) {
+            throw new IllegalArgumentException("A constraint needs at least one other flag!");
+        }
+
+        this.kind = kind;
+        this.flag = flag;
+        this.others = Collections.unmodifiableList(Arrays.asList(others.clone()));
+    }
+
+    /**
+     * Returns a constraint that fails if the flag is present but any of the required flags is not
+     *
+     * @throws IllegalArgumentException if no required flags are given
+     */
+    public static Constraint requires(String flag, String... required) {
+        return new Constraint(Kind.REQUIRES, flag, required);
+    }
+
+    /**
+     * Returns a constraint that fails if the flag is present together with any of the excluded flags
+     *
+     * @throws IllegalArgumentException if no excluded flags are given
+     */
+    public static Constraint excludes(String flag, String... excluded) {
+        return new Constraint(Kind.EXCLUDES, flag, excluded);
+    }
+
+    /**
+     * Returns a constraint that fails unless exactly one flag of the group is present
+     *
+     * @throws IllegalArgumentException if the group is empty
+     */
+    public static Constraint exactlyOne(String... group) {
+        return new Constraint(Kind.EXACTLY_ONE, null, group);
+    }
+
+    /**
+     * Returns a constraint that fails if more than one flag of the group is present
+     *
+     * @throws IllegalArgumentException if the group is empty
+     */
+    public static Constraint atMostOne(String... group) {
+        return new Constraint(Kind.AT_MOST_ONE, null, group);
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * Returns the name of the flag that requires or excludes the other flags, or null if this constraint is about a
+     * group
+     */
+    public String getFlag() {
+        return flag;
+    }
+
+    /**
+     * Returns the names of the flags that are required or excluded, or of the flags of the group
+     */
+    public List<String> getFlags() {
+        return others;
+    }
+
+    @Override
+    public String toString() {
+        String names = String.join(", ", others);
+        switch (kind) {
+            case REQUIRES:
+                return flag + " requires (" + names + ")";
+            case EXCLUDES:
+                return flag + " excludes (" + names + ")";
+            case EXACTLY_ONE:
+                return "exactly one of (" + names + ")";
+            default:
+                return "at most one of (" + names + ")";
+        }
+    }
+
+}
@@ -0,0 +1,27 @@
+package net.rahka.parameters;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * An exception used to indicate that the flags supplied to a {@link ParameterInterpreter} violated one or more of its
+ * {@link Constraint}s. All violated constraints are reported together.
+ */
+public class ConstraintViolationException extends ParameterException {
+
+    private final List<Constraint> constraints;
+
+    public ConstraintViolationException(List<Constraint> constraints) {
+        super("Violated constraints (" + constraints.stream().map(Constraint::toString).collect(Collectors.joining("; ")) + ")!");
+        this.constraints = Collections.unmodifiableList(constraints);
+    }
+
+    /**
+     * Returns the violated constraints in the order they were added to the interpreter
+     */
+    public List<Constraint> getConstraints() {
+        return constraints;
+    }
+
+}
@@ -27,6 +27,11 @@ public class ConsumerFlag extends Flag {
         return true;
     }
 
+    @Override
+    protected boolean isPure() {
+        return false;
+    }
+
     @Override
     protected Object parseArgument(String arg) throws Exception {
         consumer.consume(arg);
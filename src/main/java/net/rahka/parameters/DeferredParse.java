@@ -0,0 +1,127 @@
+package net.rahka.parameters;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The parsing of a flag's argument that has been deferred so that it can run concurrently with the parsing of other
+ * flags, see {@link ParameterInterpreter#interpretAsync(String[], Executor)}.
+ */
+final class DeferredParse {
+
+    private final int ordinal;
+    private final Flag flag;
+    private final String argument;
+    private final InterpretationListener listener;
+    private final CompletableFuture<Object> value;
+
+    DeferredParse(int ordinal, Flag flag, String argument, InterpretationListener listener) {
+        this.ordinal = ordinal;
+        this.flag = flag;
+        this.argument = argument;
+        this.listener = listener;
+        this.value = new CompletableFuture<>();
+    }
+
+    /**
+     * Returns the executor used when none is given, which runs every parse on its own virtual thread if the runtime
+     * supports virtual threads and otherwise uses the common fork-join pool
+     */
+    static Executor defaultExecutor() {
+        return DefaultExecutor.INSTANCE;
+    }
+
+    /**
+     * Starts all parses on the executor and returns a future that completes with the interpretation once all of them
+     * are done. The parsed values are added to the interpretation in the order the parses were deferred. If any
+     * parse fails then the future fails with the exception of the first parse that failed, which is the only failure
+     * that the listener is told about.
+     */
+    static CompletableFuture<ParameterInterpretation> complete(ParameterInterpretation interpretation, List<DeferredParse> parses, Executor executor) {
+        CompletableFuture<?>[] values = new CompletableFuture<?>[parses.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = parses.get(i).start(executor);
+        }
+
+        CompletableFuture<ParameterInterpretation> result = new CompletableFuture<>();
+        CompletableFuture.allOf(values).whenComplete((ignored, throwable) -> {
+            for (DeferredParse parse : parses) {
+                try {
+                    interpretation.addFlag(parse.ordinal, parse.value.join());
+                } catch (CompletionException e) {
+                    ParameterException exception = (ParameterException) e.getCause();
+                    if (parse.listener != null) {
+                        parse.listener.exceptionThrown(parse.flag, exception);
+                    }
+                    result.completeExceptionally(exception);
+                    return;
+                }
+            }
+            result.complete(interpretation);
+        });
+
+        return result;
+    }
+
+    private CompletableFuture<Object> start(Executor executor) {
+        try {
+            executor.execute(this::parse);
+        } catch (RuntimeException e) {
+            String msg = "Exception thrown when starting to parse argument for flag (" + flag.getName() + ")!";
+            fail(new ExceptionCaughtException(msg, e));
+        }
+
+        return value;
+    }
+
+    private void parse() {
+        long start = 0;
+        if (listener != null) {
+            listener.parseStarted(flag);
+            start = System.nanoTime();
+        }
+
+        Object parsed;
+        try {
+            parsed = flag.parseArgument(argument);
+        } catch (ParameterException e) {
+            fail(e);
+            return;
+        } catch (Exception e) {
+            String msg = "Exception thrown when parsing argument for flag (" + flag.getName() + ")!";
+            fail(new ExceptionCaughtException(msg, e));
+            return;
+        }
+
+        if (listener != null) {
+            listener.parseEnded(flag, System.nanoTime() - start);
+        }
+        value.complete(parsed);
+    }
+
+    private void fail(ParameterException exception) {
+        value.completeExceptionally(exception);
+    }
+
+    /**
+     * Holds the default executor so that it is only created if asynchronous interpretations are used
+     */
+    private static final class DefaultExecutor {
+
+        static final Executor INSTANCE = create();
+
+        private static Executor create() {
+            try {
+                return (Executor) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                return ForkJoinPool.commonPool();
+            }
+        }
+
+    }
+
+}
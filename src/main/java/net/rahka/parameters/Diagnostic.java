@@ -0,0 +1,211 @@
+package net.rahka.parameters;
+
+import java.util.Collection;
+
+/**
+ * A problem found by {@link ParameterInterpreter#interpretCollecting(String[])}. A diagnostic is the counterpart of the
+ * exception that {@link ParameterInterpreter#interpret(String[])} would have thrown, but it has no stack trace and its
+ * message is only built when it is first retrieved, so collecting diagnostics is cheap even when most arguments are
+ * invalid.
+ */
+public final class Diagnostic {
+
+    /**
+     * The kinds of problems
+     */
+    public enum Kind {
+
+        /**
+         * A required flag was not present, see {@link MissingFlagException}
+         */
+        MISSING_FLAG,
+
+        /**
+         * The last flag expects an argument but there was none, see {@link MissingArgumentException}
+         */
+        MISSING_ARGUMENT,
+
+        /**
+         * The argument of a {@link CollectionFlag} or {@link MapFlag} did not match any option, see
+         * {@link NonMatchingArgumentException}
+         */
+        NON_MATCHING_ARGUMENT,
+
+        /**
+         * A flag that does not expect an argument was given one with '='
+         */
+        UNEXPECTED_ARGUMENT,
+
+        /**
+         * The present flags violate a {@link Constraint}, see {@link ConstraintViolationException}
+         */
+        CONSTRAINT_VIOLATION,
+
+        /**
+         * The {@link Positional}s need more arguments than were given, see {@link MissingArgumentException}
+         */
+        MISSING_POSITIONAL,
+
+        /**
+         * There were more positional arguments than the {@link Positional}s can take
+         */
+        UNEXPECTED_POSITIONAL,
+
+        /**
+         * A flag's parser threw an exception, which is the cause of the diagnostic
+         */
+        PARSE_FAILURE,
+
+        /**
+         * Any other exception, such as a response file that could not be read, which is the cause of the diagnostic
+         */
+        OTHER
+
+    }
+
+    private final Kind kind;
+    private final Flag flag;
+    private final String argument;
+    private final Collection<?> options;
+    private final Throwable cause;
+    private final Constraint constraint;
+
+    /**
+     * The index and the number of positional arguments of a missing positional, used to find the positionals that
+     * need more arguments when the message is built
+     */
+    private final FlagIndex index;
+    private final int count;
+
+    private String message;
+
+    private Diagnostic(Kind kind, Flag flag, String argument, Collection<?> options, Throwable cause) {
+        this(kind, flag, argument, options, cause, null, null, 0);
+    }
+
+    private Diagnostic(Kind kind, Flag flag, String argument, Collection<?> options, Throwable cause, Constraint constraint, FlagIndex index, int count) {
+        this.kind = kind;
+        this.flag = flag;
+        this.argument = argument;
+        this.options = options;
+        this.cause = cause;
+        this.constraint = constraint;
+        this.index = index;
+        this.count = count;
+    }
+
+    static Diagnostic missingFlag(Flag flag) {
+        return new Diagnostic(Kind.MISSING_FLAG, flag, null, null, null);
+    }
+
+    static Diagnostic missingArgument(Flag flag, String key) {
+        return new Diagnostic(Kind.MISSING_ARGUMENT, flag, key, null, null);
+    }
+
+    static Diagnostic nonMatchingArgument(Flag flag, String argument, Collection<?> options) {
+        return new Diagnostic(Kind.NON_MATCHING_ARGUMENT, flag, argument, options, null);
+    }
+
+    static Diagnostic unexpectedArgument(Flag flag, String token) {
+        return new Diagnostic(Kind.UNEXPECTED_ARGUMENT, flag, token, null, null);
+    }
+
+    static Diagnostic constraintViolation(Constraint constraint) {
+        return new Diagnostic(Kind.CONSTRAINT_VIOLATION, null, null, null, null, constraint, null, 0);
+    }
+
+    static Diagnostic missingPositional(FlagIndex index, int count) {
+        return new Diagnostic(Kind.MISSING_POSITIONAL, null, null, null, null, null, index, count);
+    }
+
+    static Diagnostic unexpectedPositional(String argument) {
+        return new Diagnostic(Kind.UNEXPECTED_POSITIONAL, null, argument, null, null);
+    }
+
+    static Diagnostic parseFailure(Flag flag, String argument, Throwable cause) {
+        return new Diagnostic(Kind.PARSE_FAILURE, flag, argument, null, cause);
+    }
+
+    static Diagnostic other(ParameterException cause) {
+        return new Diagnostic(Kind.OTHER, null, null, null, cause);
+    }
+
+    /**
+     * Returns the kind of the problem
+     */
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * Returns the flag with the problem, or null if the problem is not caused by a single flag
+     */
+    public Flag getFlag() {
+        return flag;
+    }
+
+    /**
+     * Returns the argument with the problem, which is the flag as it was given for missing arguments, the whole token
+     * for unexpected arguments and the first argument that no positional can take for unexpected positional arguments.
+     * Returns null if the problem has no argument.
+     */
+    public String getArgument() {
+        return argument;
+    }
+
+    /**
+     * Returns the exception that caused the problem, or null if there is none
+     */
+    public Throwable getCause() {
+        return cause;
+    }
+
+    /**
+     * Returns the violated constraint, or null if the problem is not a constraint violation
+     */
+    public Constraint getConstraint() {
+        return constraint;
+    }
+
+    /**
+     * Returns the message of the problem, which is the same as the message of the corresponding exception
+     */
+    public String getMessage() {
+        String message = this.message;
+        if (message == null) {
+            message = buildMessage();
+            this.message = message;
+        }
+
+        return message;
+    }
+
+    private String buildMessage() {
+        switch (kind) {
+            case MISSING_FLAG:
+                return "Missing flags (" + flag.getName() + ")!";
+            case MISSING_ARGUMENT:
+                return "Missing argument for: " + argument;
+            case NON_MATCHING_ARGUMENT:
+                return NonMatchingArgumentException.message(argument, options);
+            case UNEXPECTED_ARGUMENT:
+                return "Flag does not take an argument: " + argument;
+            case CONSTRAINT_VIOLATION:
+                return "Violated constraints (" + constraint + ")!";
+            case MISSING_POSITIONAL:
+                return "Missing positional arguments (" + index.missingPositionals(count) + ")!";
+            case UNEXPECTED_POSITIONAL:
+                return "Unexpected positional argument: " + argument;
+            case PARSE_FAILURE:
+                return (cause instanceof ParameterException) ? cause.getMessage() : "Exception thrown when parsing argument for flag (" + flag.getName() + ")!";
+            default:
+                return cause.getMessage();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return kind + ": " + getMessage();
+    }
+
+}
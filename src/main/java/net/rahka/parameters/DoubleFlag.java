@@ -0,0 +1,52 @@
+package net.rahka.parameters;
+
+/**
+ * A flag that requires a argument and parses it into a double. It behaves like a {@link FunctionFlag} with the parser
+ * {@code Double::parseDouble}, but the value is stored without boxing, use
+ * {@link ParameterInterpretation#getDouble(String, double)} to retrieve it.
+ * <p>
+ * Any exceptions thrown when parsing the argument will be wrapped inside a {@link ParameterException} that will be
+ * then be thrown by {@link ParameterInterpreter#interpret(String[])}.
+ */
+public class DoubleFlag extends PrimitiveFlag {
+
+    /**
+     * @param name        the name of the flag
+     * @param flag        the short-hand name of the flag
+     * @param description the description of the flag
+     * @param required    whether or not this flag is required
+     */
+    public DoubleFlag(String name, String flag, String description, boolean required) {
+        super(name, flag, description, required);
+    }
+
+    /**
+     * @param name        the name of the flag
+     * @param flag        the short-hand name of the flag
+     * @param description the description of the flag
+     */
+    public DoubleFlag(String name, String flag, String description) {
+        this(name, flag, description, false);
+    }
+
+    @Override
+    long parseBits(CharSequence arg) {
+        return Double.doubleToRawLongBits(Double.parseDouble(arg.toString()));
+    }
+
+    @Override
+    Object box(long bits) {
+        return Double.longBitsToDouble(bits);
+    }
+
+    @Override
+    long toLong(long bits) {
+        throw new ClassCastException(getClass().getSimpleName() + " (" + getName() + ") is not a long");
+    }
+
+    @Override
+    double toDouble(long bits) {
+        return Double.longBitsToDouble(bits);
+    }
+
+}
@@ -0,0 +1,23 @@
+package net.rahka.parameters;
+
+/**
+ * How much of an array is used by the lists that share it, such as an {@link IntList} and its copy in a snapshot of
+ * an interpretation. Copying a list only shares the array, and elements are only ever appended after the end of the
+ * list that was appended to last. Every list sees the elements before its own size, which are never changed, so a
+ * list can append to the shared array in place as long as its size is the used length. Any other list has to copy
+ * the elements before its size into an array of its own first.
+ */
+final class Extent {
+
+    /**
+     * The number of elements at the start of the array that belong to a list
+     */
+    int used;
+
+    /**
+     * Whether or not the array has been shared by more than one list, in which case a list that is cleared to be
+     * filled again must not reuse it
+     */
+    boolean shared;
+
+}
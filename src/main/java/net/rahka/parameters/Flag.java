@@ -1,5 +1,7 @@
 package net.rahka.parameters;
 
+import java.util.Collection;
+
 /**
  * This class defines a parameter with a name, short-hand name, and description. It is used
  * by {@link ParameterInterpreter} and {@link ParameterInterpretation} to handle the parameters.
@@ -17,7 +19,7 @@ public class Flag {
 
     /**
      * The short-hand name for this flag. This is what is usually used in the command line.
-     * For example -f instead of --force
+     * For example -f instead of --force. May be null, then the flag can only be given by its name.
      */
     private final String flag;
 
@@ -64,6 +66,16 @@ public class Flag {
         return false;
     }
 
+    /**
+     * Used by {@link ParameterInterpreter} to check if parsing this flag has no side effects, meaning that the same
+     * argument always parses to an equal value and nothing else happens. Interpretations of flags that are not pure
+     * are never cached, see {@link ParameterInterpreter#setCache(int)}. Override this in order to mark a flag as pure
+     * or not.
+     */
+    protected boolean isPure() {
+        return true;
+    }
+
     /**
      * Parses this flag's argument and returns its parsed value
      */
@@ -71,6 +83,60 @@ public class Flag {
         return null;
     }
 
+    /**
+     * Used by {@link ParameterInterpreter#interpretAsync(String[], java.util.concurrent.Executor)} to check if this
+     * flag's argument is parsed concurrently with those of other flags. Flags that are not parsed concurrently are
+     * parsed on the interpreting thread in the order they occur.
+     */
+    boolean parsesConcurrently() {
+        return false;
+    }
+
+    /**
+     * Used by {@link IncrementalInterpreter} to copy a value that this flag stored in an interpretation, so that a
+     * snapshot of the interpretation is not affected by later occurrences of this flag. Flags that change their value
+     * when they occur again override this, all other values are returned as they are. The copy should share the
+     * storage of the value, since a value is copied for every snapshot.
+     */
+    Object copyValue(Object value) {
+        return value;
+    }
+
+    /**
+     * Used by {@link ParameterInterpreter#interpretCollecting(String[])} to get the options that this flag's argument
+     * must match, or null if the flag has no options. Flags with options check their argument with
+     * {@link #accepts(String)} before it is parsed, so a non-matching argument does not cost an exception.
+     */
+    Collection<?> options() {
+        return null;
+    }
+
+    /**
+     * Used by {@link ParameterInterpreter#interpretCollecting(String[])} to check if an argument matches one of the
+     * options of this flag, see {@link #options()}
+     */
+    boolean accepts(String arg) {
+        return true;
+    }
+
+    /**
+     * Used by {@link ParameterInterpreter#complete(String[])} to get a trie of the options of this flag's argument,
+     * or null if the flag has no options
+     */
+    CompletionTrie optionTrie() {
+        return null;
+    }
+
+    /**
+     * Used by {@link ParameterInterpreter} to parse this flag's argument and store it in the slot of this flag in the
+     * interpretation. The argument may be a view that is only valid during the call. Flags that can parse the
+     * argument without copying it into a string, or that store their values in other ways than as the object
+     * returned by {@link #parseArgument(String)}, override this.
+     */
+    void parseInto(ParameterInterpretation interpretation, int ordinal, CharSequence arg) throws Exception {
+        interpretation.addFlag(ordinal, parseArgument((arg == null) ? null : arg.toString()));
+    }
+
     public boolean isRequired() {
         return required;
     }
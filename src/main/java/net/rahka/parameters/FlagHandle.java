@@ -0,0 +1,33 @@
+package net.rahka.parameters;
+
+/**
+ * A handle to a flag of a {@link ParameterInterpreter}, retrieved with {@link ParameterInterpreter#handle(String)}.
+ * It can be used to retrieve parsed values from the interpreter's interpretations without looking up the flag by
+ * its name every time.
+ * <p>
+ * A handle is fastest with interpretations made by the interpreter it was retrieved from, or by interpreters compiled
+ * from it. With interpretations of other interpreters, such as a {@link CommandRouter} that puts its shared flags
+ * before the flags of a command, the flag is looked up by the handle's name whenever its ordinal does not match.
+ */
+public final class FlagHandle<T> {
+
+    /**
+     * The ordinal of the flag in the interpreter, which is also its slot in an interpretation
+     */
+    final int ordinal;
+
+    private final String name;
+
+    FlagHandle(int ordinal, String name) {
+        this.ordinal = ordinal;
+        this.name = name;
+    }
+
+    /**
+     * Returns the name of the flag that this handle refers to
+     */
+    public String getName() {
+        return name;
+    }
+
+}
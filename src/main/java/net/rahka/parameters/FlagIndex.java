@@ -0,0 +1,512 @@
+package net.rahka.parameters;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * An immutable snapshot of the flags registered in a {@link ParameterInterpreter}. Every flag is given an ordinal,
+ * which is its position in the order the flags were added. The ordinal is used as the slot of the flag in a
+ * {@link ParameterInterpretation}, and since flags are only ever appended it stays the same in every later snapshot.
+ * Flags with the same name share the slot of the last of them, just like they share the name.
+ * <p>
+ * Both the names and the short-hand names of the flags are put in open addressing hash tables that map them to the
+ * ordinal. Lookups hash and compare a region of the token directly, so matching a flag never requires a substring of
+ * the token. The tables are kept at most half full which means that a lookup usually finishes after a single probe.
+ * <p>
+ * The {@link Constraint}s of the index are compiled into bitmasks of ordinals, laid out like the presence bitset of a
+ * {@link ParameterInterpretation}, so checking a constraint is a few word-wise operations on that bitset.
+ * <p>
+ * The {@link Positional}s of the index share the positional arguments of an interpretation by their arity, which only
+ * depends on the number of positional arguments and is computed when the arguments of a positional are retrieved.
+ * <p>
+ * The {@link ParameterSource}s of the index are kept in order of precedence, so that an interpretation uses the same
+ * sources throughout just like it uses the same flags.
+ */
+final class FlagIndex {
+
+    /**
+     * The prefix used to tell flags apart from their arguments, see {@link ParameterInterpreter}
+     */
+    final String prefix;
+
+    /**
+     * All flags of this index, the index of a flag in this array is its ordinal
+     */
+    final Flag[] flags;
+
+    /**
+     * The ordinals of the required flags of this index in the order they were added
+     */
+    final int[] required;
+
+    /**
+     * Whether or not any flag of this index is a {@link PrimitiveFlag}
+     */
+    final boolean primitives;
+
+    /**
+     * Maps both names and short-hand names to ordinals, used when interpreting flags
+     */
+    private final Table tokens;
+
+    /**
+     * Maps only names to ordinals, used when retrieving parsed values by name
+     */
+    private final Table names;
+
+    /**
+     * The slot that the value of each flag is stored in, which is the ordinal of the last flag with the same name. A
+     * flag whose name is overridden by a later flag stores its value in the slot of that flag, so that the value can
+     * still be retrieved by name.
+     */
+    final int[] slots;
+
+    /**
+     * The constraints of this index in the order they were added
+     */
+    final Constraint[] constraints;
+
+    /**
+     * The ordinal of the flag that requires or excludes the other flags of each constraint, or -1 for groups
+     */
+    private final int[] owners;
+
+    /**
+     * The bitmask of the ordinals of the other flags of each constraint
+     */
+    private final long[][] masks;
+
+    /**
+     * The positionals of this index in the order of their arguments
+     */
+    final Positional[] positionals;
+
+    /**
+     * The number of positional arguments that the positionals need
+     */
+    final int positionalMinimum;
+
+    /**
+     * The number of positional arguments that the positionals can take, or -1 if one of them is variadic
+     */
+    final int positionalMaximum;
+
+    /**
+     * The sources of arguments for flags that are missing from the command line, in order of precedence
+     */
+    final ParameterSource[] sources;
+
+    /**
+     * The trie of the flags as they can be given, used for completion and created when first needed
+     */
+    private volatile CompletionTrie completions;
+
+    FlagIndex(String prefix, Flag[] flags) {
+        this(prefix, flags, new Constraint[0], new Positional[0], new ParameterSource[0]);
+    }
+
+    /**
+     * @throws IllegalArgumentException if a constraint refers to a flag that is not in the index, if two positionals
+     *                                  have the same name or if more than one positional is variadic
+     */
+    FlagIndex(String prefix, Flag[] flags, Constraint[] constraints, Positional[] positionals, ParameterSource[] sources) {
+        this.prefix = prefix;
+        this.flags = flags;
+
+        int[] required = new int[flags.length];
+        int count = 0;
+        boolean primitives = false;
+        for (int ordinal = 0; ordinal < flags.length; ordinal++) {
+            if (flags[ordinal].isRequired()) {
+                required[count++] = ordinal;
+            }
+            primitives |= flags[ordinal] instanceof PrimitiveFlag;
+        }
+        this.required = Arrays.copyOf(required, count);
+        this.primitives = primitives;
+
+        this.tokens = new Table(flags.length * 2);
+        this.names = new Table(flags.length);
+        for (int ordinal = 0; ordinal < flags.length; ordinal++) {
+            tokens.put(flags[ordinal].getName(), ordinal);
+            tokens.put(flags[ordinal].getFlag(), ordinal);
+            names.put(flags[ordinal].getName(), ordinal);
+        }
+
+        this.slots = new int[flags.length];
+        for (int ordinal = 0; ordinal < flags.length; ordinal++) {
+            String name = flags[ordinal].getName();
+            slots[ordinal] = (name == null) ? ordinal : names.find(name, 0, name.length());
+        }
+
+        this.constraints = constraints;
+        this.owners = new int[constraints.length];
+        this.masks = new long[constraints.length][(flags.length + 63) >>> 6];
+        for (int i = 0; i < constraints.length; i++) {
+            owners[i] = (constraints[i].getFlag() == null) ? -1 : resolve(constraints[i].getFlag());
+            for (String name : constraints[i].getFlags()) {
+                int ordinal = resolve(name);
+                masks[i][ordinal >>> 6] |= 1L << ordinal;
+            }
+        }
+
+        this.positionals = positionals;
+        int minimum = 0;
+        int maximum = 0;
+        for (int i = 0; i < positionals.length; i++) {
+            for (int j = 0; j < i; j++) {
+                if (positionals[j].getName().equals(positionals[i].getName())) {
+                    throw new IllegalArgumentException("Positional (" + positionals[i].getName() + ") already exists!");
+                }
+            }
+
+            minimum += positionals[i].getMinimum();
+            if (positionals[i].isVariadic()) {
+                if (maximum < 0) {
+                    throw new IllegalArgumentException("Only one positional can be variadic!");
+                }
+                maximum = -1;
+            } else if (maximum >= 0) {
+                maximum += positionals[i].getMaximum();
+            }
+        }
+        this.positionalMinimum = minimum;
+        this.positionalMaximum = maximum;
+        this.sources = sources;
+    }
+
+    private int resolve(String name) {
+        int ordinal = ordinal(name);
+        if (ordinal < 0) {
+            throw new IllegalArgumentException("No flag named (" + name + ")!");
+        }
+
+        return ordinal;
+    }
+
+    /**
+     * Returns a new index that contains all flags of this index followed by the given flags. Names and short-hand
+     * names of the given flags override those of any flags already in this index.
+     */
+    FlagIndex with(Flag... flags) {
+        Flag[] joined = Arrays.copyOf(this.flags, this.flags.length + flags.length);
+        System.arraycopy(flags, 0, joined, this.flags.length, flags.length);
+        return new FlagIndex(prefix, joined, constraints, positionals, sources);
+    }
+
+    /**
+     * Returns a new index with the flags of this index and its constraints followed by the given constraints
+     *
+     * @throws IllegalArgumentException if a constraint refers to a flag that is not in the index
+     */
+    FlagIndex withConstraints(Constraint... constraints) {
+        Constraint[] joined = Arrays.copyOf(this.constraints, this.constraints.length + constraints.length);
+        System.arraycopy(constraints, 0, joined, this.constraints.length, constraints.length);
+        return new FlagIndex(prefix, flags, joined, positionals, sources);
+    }
+
+    /**
+     * Returns a new index with the flags and constraints of this index and its positionals followed by the given
+     * positionals
+     *
+     * @throws IllegalArgumentException if two positionals have the same name or more than one is variadic
+     */
+    FlagIndex withPositionals(Positional... positionals) {
+        Positional[] joined = Arrays.copyOf(this.positionals, this.positionals.length + positionals.length);
+        System.arraycopy(positionals, 0, joined, this.positionals.length, positionals.length);
+        return new FlagIndex(prefix, flags, constraints, joined, sources);
+    }
+
+    /**
+     * Returns a new index with everything of this index and its sources followed by the given sources, which have a
+     * lower precedence
+     */
+    FlagIndex withSources(ParameterSource... sources) {
+        ParameterSource[] joined = Arrays.copyOf(this.sources, this.sources.length + sources.length);
+        System.arraycopy(sources, 0, joined, this.sources.length, sources.length);
+        return new FlagIndex(prefix, flags, constraints, positionals, joined);
+    }
+
+    /**
+     * Returns the index of the positional with the given name, or -1 if there is no such positional
+     */
+    int positional(String name) {
+        for (int i = 0; i < positionals.length; i++) {
+            if (positionals[i].getName().equals(name)) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Returns the position after the last argument of the positional at the index, given the total number of
+     * positional arguments. Every positional gets the arguments it needs, and the arguments that remain go to the
+     * first positionals that can take more. If there are too few arguments then the first positionals get theirs.
+     */
+    int positionalEnd(int positional, int count) {
+        int extra = Math.max(0, count - positionalMinimum);
+        int end = 0;
+        for (int i = 0; i <= positional; i++) {
+            int minimum = positionals[i].getMinimum();
+            int more = positionals[i].isVariadic() ? extra : Math.min(extra, positionals[i].getMaximum() - minimum);
+            extra -= more;
+            end = Math.min(end + minimum + more, count);
+        }
+
+        return end;
+    }
+
+    /**
+     * Returns the names of the positionals that need more arguments than they get, given the total number of
+     * positional arguments, separated by commas
+     */
+    String missingPositionals(int count) {
+        StringJoiner missing = new StringJoiner(", ");
+        for (int i = 0, start = 0; i < positionals.length; i++) {
+            int end = positionalEnd(i, count);
+            if (end - start < positionals[i].getMinimum()) {
+                missing.add(positionals[i].getName());
+            }
+            start = end;
+        }
+
+        return missing.toString();
+    }
+
+    /**
+     * Returns whether or not the token is the prefix twice and nothing else, which marks the end of the flags
+     */
+    boolean isEndOfFlags(CharSequence token) {
+        return token.length() == prefix.length() * 2 && nameStart(token) == token.length();
+    }
+
+    /**
+     * Returns the constraints that are violated by the flags whose bits are set in the presence bitset, in a single
+     * pass over the compiled masks. Returns an empty list without allocating anything if no constraint is violated.
+     */
+    List<Constraint> violated(long[] present) {
+        List<Constraint> violated = Collections.emptyList();
+        for (int i = 0; i < constraints.length; i++) {
+            int owner = owners[i];
+            if (owner >= 0 && (present[owner >>> 6] & (1L << owner)) == 0) {
+                continue; //Requires and excludes only apply when their flag is present
+            }
+
+            long[] mask = masks[i];
+            int count = 0;
+            boolean all = true;
+            for (int word = 0; word < mask.length; word++) {
+                long matched = present[word] & mask[word];
+                count += Long.bitCount(matched);
+                all &= matched == mask[word];
+            }
+
+            boolean holds;
+            switch (constraints[i].getKind()) {
+                case REQUIRES:
+                    holds = all;
+                    break;
+                case EXCLUDES:
+                    holds = count == 0;
+                    break;
+                case EXACTLY_ONE:
+                    holds = count == 1;
+                    break;
+                default:
+                    holds = count <= 1;
+                    break;
+            }
+
+            if (!holds) {
+                if (violated.isEmpty()) {
+                    violated = new ArrayList<>();
+                }
+                violated.add(constraints[i]);
+            }
+        }
+
+        return violated;
+    }
+
+    /**
+     * Returns the index in the token where the name of a flag starts, or -1 if the token does not start with the
+     * prefix. If the prefix occurs twice in succession then the name starts after the second prefix.
+     */
+    int nameStart(CharSequence token) {
+        if (!startsWith(token, 0)) {
+            return -1;
+        }
+
+        int length = prefix.length();
+        return startsWith(token, length) ? length * 2 : length;
+    }
+
+    private boolean startsWith(CharSequence token, int offset) {
+        if (token.length() - offset < prefix.length()) {
+            return false;
+        }
+
+        for (int i = 0; i < prefix.length(); i++) {
+            if (token.charAt(offset + i) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns the ordinal of the flag whose name or short-hand name equals the characters of the token between
+     * {@code from} (inclusive) and {@code to} (exclusive), or -1 if there is no such flag.
+     */
+    int find(CharSequence token, int from, int to) {
+        return tokens.find(token, from, to);
+    }
+
+    /**
+     * Returns the ordinal of the flag that ends a cluster of short-hand names and expects the next argument, or -1 if
+     * there is no such flag. A flag that expects an argument in the middle of the cluster takes the rest of the
+     * cluster as its argument, and a token with a character that is not a short-hand name is not a cluster.
+     */
+    int clusterPending(CharSequence token, int start) {
+        for (int i = start; i < token.length(); i++) {
+            int ordinal = find(token, i, i + 1);
+            if (ordinal < 0) {
+                return -1;
+            }
+
+            if (flags[ordinal].expectsArgument()) {
+                return (i == token.length() - 1) ? ordinal : -1;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Returns the ordinal of the flag with the given name, or -1 if there is no such flag. Short-hand names are not
+     * considered.
+     */
+    int ordinal(String name) {
+        return (name == null) ? -1 : names.find(name, 0, name.length());
+    }
+
+    /**
+     * Returns the ordinal of the flag that the handle refers to, or -1 if this index has no flag with the handle's
+     * name. The ordinal of the handle is used as long as the flag at that ordinal has the handle's name and is not
+     * overridden, otherwise the flag is looked up by name. This way a handle also works with interpreters that have
+     * the same flags at other ordinals, such as the interpreters of a {@link CommandRouter}, which put the shared flags
+     * first.
+     */
+    int slot(FlagHandle<?> handle) {
+        int ordinal = handle.ordinal;
+        if (ordinal < flags.length && slots[ordinal] == ordinal && handle.getName().equals(flags[ordinal].getName())) {
+            return ordinal;
+        }
+
+        return ordinal(handle.getName());
+    }
+
+    /**
+     * Returns a trie of every flag as it can be given, its short-hand name after the prefix and its name after the
+     * prefix twice
+     */
+    CompletionTrie completions() {
+        CompletionTrie completions = this.completions;
+        if (completions == null) {
+            completions = new CompletionTrie(false);
+            for (Flag flag : flags) {
+                if (flag.getFlag() != null) {
+                    completions.add(prefix + flag.getFlag());
+                }
+                if (flag.getName() != null) {
+                    completions.add(prefix + prefix + flag.getName());
+                }
+            }
+            this.completions = completions;
+        }
+
+        return completions;
+    }
+
+    /**
+     * An open addressing hash table from strings to ordinals. Keys that are put more than once map to the ordinal
+     * that was put last, and null keys are not put at all, so a flag without a short-hand name can only be given by
+     * its name.
+     */
+    private static final class Table {
+
+        private final String[] keys;
+        private final int[] ordinals;
+        private final int mask;
+
+        Table(int expected) {
+            int capacity = Integer.highestOneBit(Math.max(expected * 2, 2) - 1) << 1;
+            this.keys = new String[capacity];
+            this.ordinals = new int[capacity];
+            this.mask = capacity - 1;
+        }
+
+        void put(String key, int ordinal) {
+            if (key == null) {
+                return;
+            }
+
+            for (int slot = spread(key.hashCode()) & mask; ; slot = (slot + 1) & mask) {
+                if (keys[slot] == null || keys[slot].equals(key)) {
+                    keys[slot] = key;
+                    ordinals[slot] = ordinal;
+                    return;
+                }
+            }
+        }
+
+        int find(CharSequence token, int from, int to) {
+            int length = to - from;
+            for (int slot = hash(token, from, to) & mask; ; slot = (slot + 1) & mask) {
+                String key = keys[slot];
+                if (key == null) {
+                    return -1;
+                }
+
+                if (key.length() == length && matches(key, token, from)) {
+                    return ordinals[slot];
+                }
+            }
+        }
+
+        private static boolean matches(String key, CharSequence token, int from) {
+            for (int i = 0; i < key.length(); i++) {
+                if (key.charAt(i) != token.charAt(from + i)) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        /**
+         * Hashes a region of the token the same way {@link String#hashCode()} hashes a whole string, so that the
+         * region and an equal key end up in the same slot.
+         */
+        private static int hash(CharSequence token, int from, int to) {
+            int hash = 0;
+            for (int i = from; i < to; i++) {
+                hash = 31 * hash + token.charAt(i);
+            }
+
+            return spread(hash);
+        }
+
+        private static int spread(int hash) {
+            return hash ^ (hash >>> 16);
+        }
+
+    }
+
+}
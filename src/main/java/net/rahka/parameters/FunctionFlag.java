@@ -38,11 +38,25 @@ public class FunctionFlag<T> extends Flag {
         return true;
     }
 
+    @Override
+    boolean parsesConcurrently() {
+        return true;
+    }
+
     @Override
     protected Object parseArgument(String arg) throws Exception {
         return parser.parse(arg);
     }
 
+    @Override
+    void parseInto(ParameterInterpretation interpretation, int ordinal, CharSequence arg) throws Exception {
+        if (arg instanceof String) {
+            interpretation.addFlag(ordinal, parser.parse((String) arg));
+        } else {
+            interpretation.addFlag(ordinal, parser.parse(arg));
+        }
+    }
+
     /**
      * Functional interface for use with this flag.
      */
@@ -50,6 +64,31 @@ public class FunctionFlag<T> extends Flag {
 
         T parse(String argument) throws Exception;
 
+        /**
+         * Parses an argument that was not supplied as a string, for example when interpreting tokens in place with
+         * {@link ParameterInterpreter#interpret(CharSequence, int[], int[])}. The default implementation copies the
+         * argument into a string, implement {@link SequenceFunction} in order to parse it without copying.
+         */
+        default T parse(CharSequence argument) throws Exception {
+            return parse(argument.toString());
+        }
+
+    }
+
+    /**
+     * Functional interface for use with this flag that parses the argument directly from its characters. The
+     * argument may be a view that is only valid during the call, so it has to be copied if it is kept.
+     */
+    public interface SequenceFunction<T> extends Function<T> {
+
+        @Override
+        T parse(CharSequence argument) throws Exception;
+
+        @Override
+        default T parse(String argument) throws Exception {
+            return parse((CharSequence) argument);
+        }
+
     }
 
 }
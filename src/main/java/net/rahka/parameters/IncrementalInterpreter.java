@@ -0,0 +1,95 @@
+package net.rahka.parameters;
+
+import java.util.List;
+
+/**
+ * Interprets tokens one at a time as they arrive, such as the words of a command line that is being typed, see
+ * {@link ParameterInterpreter#incremental()}. The state of the interpretation is kept between tokens, so every token
+ * is interpreted once no matter how many tokens follow it, instead of interpreting the whole line again for every new
+ * token.
+ * <p>
+ * At any point {@link #snapshot()} returns the interpretation of the tokens so far. Snapshots are copy-on-write: the
+ * interpretation is only copied when a token is accepted after a snapshot was taken. The positional arguments and the
+ * lists of {@link ListFlag}s and {@link IntListFlag}s share their storage with the snapshot and are only appended to,
+ * so a snapshot after every token costs a copy of the flag slots per token and never depends on the number of earlier
+ * tokens. The pending flag and the next required flag can also be checked after every token in amortized constant
+ * time.
+ * <p>
+ * An incremental interpreter uses the flags the interpreter had when it was created, and must only be used by one
+ * thread at a time. Snapshots can be handed to other threads.
+ */
+public final class IncrementalInterpreter {
+
+    private final TokenInterpreter interpreter;
+
+    IncrementalInterpreter(TokenInterpreter interpreter) {
+        this.interpreter = interpreter;
+    }
+
+    /**
+     * Interprets the next token, see {@link ParameterInterpreter#interpret(String[])}. If interpreting the token
+     * throws then the flag whose argument could not be parsed is left out, and more tokens can still be accepted.
+     *
+     * @throws NonMatchingArgumentException if the argument of a {@link CollectionFlag} did not exist in its collection
+     * @throws ExceptionCaughtException     if a exception was thrown when parsing a flag
+     */
+    public void accept(CharSequence token) {
+        interpreter.accept(token);
+    }
+
+    /**
+     * Returns the interpretation of the tokens accepted so far. Required flags may be missing and the last flag may
+     * still be waiting for its argument. The snapshot is not changed by tokens accepted afterwards.
+     */
+    public ParameterInterpretation snapshot() {
+        return interpreter.snapshot();
+    }
+
+    /**
+     * Returns the flag that is waiting for its argument, which is the flag that the next token is given to, or null
+     * if no flag is waiting
+     */
+    public Flag getPendingFlag() {
+        return interpreter.pendingFlag();
+    }
+
+    /**
+     * Returns the required flag that the next unnamed token is given to, or null if all required flags are present
+     */
+    public Flag getNextRequired() {
+        return interpreter.nextRequired();
+    }
+
+    /**
+     * Returns all required flags that are not present yet, in the order they are given unnamed tokens
+     */
+    public List<Flag> getMissingRequired() {
+        return interpreter.missingRequired();
+    }
+
+    /**
+     * Returns whether or not no flag is waiting for its argument, all required flags are present, the positionals
+     * have the arguments they need and no constraints are violated, meaning that {@link #finish()} would succeed
+     */
+    public boolean isComplete() {
+        return interpreter.pendingFlag() == null && interpreter.nextRequired() == null && interpreter.positionalsComplete()
+                && interpreter.violatedConstraints().isEmpty();
+    }
+
+    /**
+     * Returns the interpretation of the tokens accepted so far after checking that it is complete. More tokens can be
+     * accepted afterwards, they do not change the returned interpretation. The returned interpretation also has the
+     * arguments of the interpreter's sources, but tokens accepted afterwards are interpreted as if there were none.
+     *
+     * @throws MissingFlagException         if a required flag is not present
+     * @throws MissingArgumentException     if the last flag requires an argument
+     * @throws ConstraintViolationException if the present flags violate any constraints
+     */
+    public ParameterInterpretation finish() {
+        interpreter.snapshot();
+        ParameterInterpretation interpretation = interpreter.finish();
+        interpretation.share();
+        return interpretation;
+    }
+
+}
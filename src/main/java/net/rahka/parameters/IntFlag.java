@@ -0,0 +1,57 @@
+package net.rahka.parameters;
+
+/**
+ * A flag that requires a argument and parses it into an int. It behaves like a {@link FunctionFlag} with the parser
+ * {@code Integer::parseInt}, but the value is parsed directly from the argument's characters and stored without boxing, use
+ * {@link ParameterInterpretation#getInt(String, int)} to retrieve it.
+ * <p>
+ * Any exceptions thrown when parsing the argument will be wrapped inside a {@link ParameterException} that will be
+ * then be thrown by {@link ParameterInterpreter#interpret(String[])}.
+ */
+public class IntFlag extends PrimitiveFlag {
+
+    /**
+     * @param name        the name of the flag
+     * @param flag        the short-hand name of the flag
+     * @param description the description of the flag
+     * @param required    whether or not this flag is required
+     */
+    public IntFlag(String name, String flag, String description, boolean required) {
+        super(name, flag, description, required);
+    }
+
+    /**
+     * @param name        the name of the flag
+     * @param flag        the short-hand name of the flag
+     * @param description the description of the flag
+     */
+    public IntFlag(String name, String flag, String description) {
+        this(name, flag, description, false);
+    }
+
+    @Override
+    long parseBits(CharSequence arg) {
+        return Integer.parseInt(arg, 0, arg.length(), 10);
+    }
+
+    @Override
+    Object box(long bits) {
+        return (int) bits;
+    }
+
+    @Override
+    int toInt(long bits) {
+        return (int) bits;
+    }
+
+    @Override
+    long toLong(long bits) {
+        return bits;
+    }
+
+    @Override
+    double toDouble(long bits) {
+        return bits;
+    }
+
+}
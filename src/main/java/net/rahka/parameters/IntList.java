@@ -0,0 +1,138 @@
+package net.rahka.parameters;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * A list of ints backed by a growable int array, the value of an {@link IntListFlag}. The ints are stored without
+ * boxing, and the list cannot be changed once it has been retrieved from an interpretation. Copies of the list share
+ * its array, see {@link Extent}.
+ */
+public final class IntList {
+
+    private int[] values;
+    private int size;
+    private Extent extent;
+
+    IntList() {
+        this.values = new int[8];
+        this.extent = new Extent();
+    }
+
+    private IntList(IntList list) {
+        this.values = list.values;
+        this.size = list.size;
+        this.extent = list.extent;
+    }
+
+    /**
+     * Used by {@link IntListFlag} to add an int to the end of the list, doubling the array when it is full. The array
+     * is also copied if another list sharing it has added ints after the end of this list.
+     */
+    void add(int value) {
+        if (size == values.length || size != extent.used) {
+            values = Arrays.copyOf(values, Math.max(size * 2, 8));
+            extent = new Extent();
+        }
+        values[size++] = value;
+        extent.used = size;
+    }
+
+    /**
+     * Used by {@link IntListFlag} to remove the ints after the given size, which are the ints of an argument that
+     * failed to parse
+     */
+    void truncate(int size) {
+        if (extent.used == this.size) {
+            extent.used = size;
+        }
+        this.size = size;
+    }
+
+    /**
+     * Used by {@link IntListFlag} to copy the list into a snapshot of an interpretation. The copy shares the array of
+     * this list, so copying takes constant time.
+     */
+    IntList copy() {
+        return new IntList(this);
+    }
+
+    /**
+     * Returns the number of ints in the list
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns whether or not the list is empty
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the int at the given position
+     *
+     * @throws IndexOutOfBoundsException if the position is negative or not less than the size
+     */
+    public int get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+
+        return values[index];
+    }
+
+    /**
+     * Returns a new array with the ints of the list
+     */
+    public int[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+
+    /**
+     * Returns a stream of the ints of the list
+     */
+    public IntStream stream() {
+        return Arrays.stream(values, 0, size);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+
+        if (!(o instanceof IntList)) {
+            return false;
+        }
+
+        IntList other = (IntList) o;
+        return Arrays.equals(values, 0, size, other.values, 0, other.size);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 1;
+        for (int i = 0; i < size; i++) {
+            hash = 31 * hash + values[i];
+        }
+
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("[");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append(values[i]);
+        }
+
+        return builder.append(']').toString();
+    }
+
+}
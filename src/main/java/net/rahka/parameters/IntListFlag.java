@@ -0,0 +1,144 @@
+package net.rahka.parameters;
+
+/**
+ * A flag that requires a argument and parses it into a list of ints separated by a delimiter, such as
+ * {@code --ids 1,2,3}. The flag can be repeated, the ints of every occurrence are added to the same {@link IntList},
+ * so {@code -i 1,2 -i 3} results in the same list as {@code -i 1,2,3}.
+ * <p>
+ * The argument is split and parsed in a single pass over its characters, without creating a string per int and
+ * without boxing. Any exceptions thrown when parsing the argument will be wrapped inside a {@link ParameterException}
+ * that will be then be thrown by {@link ParameterInterpreter#interpret(String[])}.
+ */
+public class IntListFlag extends Flag {
+
+    private final char delimiter;
+
+    /**
+     * @param name        the name of the flag
+     * @param flag        the short-hand name of the flag
+     * @param description the description of the flag
+     * @param delimiter   the character that separates the ints of an argument
+     * @param required    whether or not this flag is required
+     */
+    public IntListFlag(String name, String flag, String description, char delimiter, boolean required) {
+        super(name, flag, description, required);
+        this.delimiter = delimiter;
+    }
+
+    /**
+     * Constructs a flag whose ints are separated by ','
+     *
+     * @param name        the name of the flag
+     * @param flag        the short-hand name of the flag
+     * @param description the description of the flag
+     * @param required    whether or not this flag is required
+     */
+    public IntListFlag(String name, String flag, String description, boolean required) {
+        this(name, flag, description, ',', required);
+    }
+
+    /**
+     * Constructs a flag whose ints are separated by ','
+     *
+     * @param name        the name of the flag
+     * @param flag        the short-hand name of the flag
+     * @param description the description of the flag
+     */
+    public IntListFlag(String name, String flag, String description) {
+        this(name, flag, description, ',', false);
+    }
+
+    @Override
+    protected boolean expectsArgument() {
+        return true;
+    }
+
+    @Override
+    protected Object parseArgument(String arg) {
+        IntList list = new IntList();
+        parse(arg, list);
+        return list;
+    }
+
+    @Override
+    Object copyValue(Object value) {
+        return (value instanceof IntList) ? ((IntList) value).copy() : value;
+    }
+
+    @Override
+    void parseInto(ParameterInterpretation interpretation, int ordinal, CharSequence arg) {
+        Object current = interpretation.slot(ordinal);
+        IntList list = (current instanceof IntList) ? (IntList) current : new IntList();
+
+        int size = list.size();
+        try {
+            parse(arg, list);
+        } catch (RuntimeException e) {
+            list.truncate(size); //An argument that fails to parse leaves the flag as it was
+            throw e;
+        }
+
+        if (list != current) {
+            interpretation.addFlag(ordinal, list);
+        }
+    }
+
+    /**
+     * Parses the ints of the argument into the list. The ints are accumulated as negative numbers the same way
+     * {@link Integer#parseInt(String)} does, so that {@link Integer#MIN_VALUE} can be parsed without overflowing.
+     *
+     * @throws NumberFormatException if an int is empty, has characters other than digits and a leading sign, or does
+     *                               not fit in an int
+     */
+    private void parse(CharSequence arg, IntList list) {
+        int length = arg.length();
+        int i = 0;
+        while (true) {
+            int start = i;
+            boolean negative = false;
+            if (i < length && (arg.charAt(i) == '-' || arg.charAt(i) == '+')) {
+                negative = arg.charAt(i) == '-';
+                i++;
+            }
+
+            int limit = negative ? Integer.MIN_VALUE : -Integer.MAX_VALUE;
+            int multiplicationLimit = limit / 10;
+            int value = 0;
+            int digits = 0;
+            for (; i < length; i++) {
+                char c = arg.charAt(i);
+                if (c == delimiter) {
+                    break;
+                }
+
+                int digit = c - '0';
+                if (digit < 0 || digit > 9 || value < multiplicationLimit || value * 10 < limit + digit) {
+                    throw invalid(arg, start, delimiter);
+                }
+
+                value = value * 10 - digit;
+                digits++;
+            }
+
+            if (digits == 0) {
+                throw invalid(arg, start, delimiter);
+            }
+
+            list.add(negative ? value : -value);
+            if (i == length) {
+                return;
+            }
+            i++; //Skip the delimiter
+        }
+    }
+
+    private static NumberFormatException invalid(CharSequence arg, int start, char delimiter) {
+        int end = start;
+        while (end < arg.length() && arg.charAt(end) != delimiter) {
+            end++;
+        }
+
+        return new NumberFormatException("For input string: \"" + arg.subSequence(start, end) + "\"");
+    }
+
+}
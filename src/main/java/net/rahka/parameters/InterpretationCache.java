@@ -0,0 +1,107 @@
+package net.rahka.parameters;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded cache of interpretations keyed on the arguments that were interpreted, see
+ * {@link ParameterInterpreter#setCache(int)}. When the cache is full the least recently used interpretation is
+ * evicted.
+ * <p>
+ * An interpretation is only valid for the snapshot of flags that it was made with, a cached interpretation of an
+ * older snapshot is treated as a miss and replaced.
+ */
+final class InterpretationCache {
+
+    private final int maximumSize;
+    private final LinkedHashMap<Key, ParameterInterpretation> entries;
+
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final LongAdder evictions;
+
+    InterpretationCache(int maximumSize) {
+        this.maximumSize = maximumSize;
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+        this.evictions = new LongAdder();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, ParameterInterpretation> eldest) {
+                if (size() > InterpretationCache.this.maximumSize) {
+                    evictions.increment();
+                    return true;
+                }
+
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached interpretation of the arguments, or null if there is none for the given snapshot of flags
+     */
+    ParameterInterpretation get(FlagIndex index, String[] args) {
+        ParameterInterpretation interpretation;
+        synchronized (entries) {
+            interpretation = entries.get(new Key(args));
+        }
+
+        if (interpretation != null && interpretation.index == index) {
+            hits.increment();
+            return interpretation;
+        }
+
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Caches the interpretation of the arguments, the arguments are copied so later changes to the array do not
+     * affect the cache
+     */
+    void put(String[] args, ParameterInterpretation interpretation) {
+        interpretation.share();
+        synchronized (entries) {
+            entries.put(new Key(args.clone()), interpretation);
+        }
+    }
+
+    int getMaximumSize() {
+        return maximumSize;
+    }
+
+    CacheStatistics statistics() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+
+        return new CacheStatistics(hits.sum(), misses.sum(), evictions.sum(), size);
+    }
+
+    private static final class Key {
+
+        private final String[] args;
+        private final int hash;
+
+        Key(String[] args) {
+            this.args = args;
+            this.hash = Arrays.hashCode(args);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key && ((Key) o).hash == hash && Arrays.equals(((Key) o).args, args);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+    }
+
+}
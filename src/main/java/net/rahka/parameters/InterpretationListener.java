@@ -0,0 +1,64 @@
+package net.rahka.parameters;
+
+/**
+ * Listens to the steps of the interpretations made by a {@link ParameterInterpreter}, see
+ * {@link ParameterInterpreter#setListener(InterpretationListener)}. Every method does nothing by default, so a
+ * listener only has to implement the steps it is interested in. {@link InterpretationMetrics} is a listener that
+ * counts the steps and measures how long the flags take to parse.
+ * <p>
+ * A listener is called on the thread doing the interpretation, which means that a listener that is shared between
+ * threads, or used with {@link ParameterInterpreter#interpretAsync(String[], java.util.concurrent.Executor)}, must be
+ * thread safe. Tokens may be views that are re-pointed to the next token afterwards, so a listener that keeps a token
+ * must copy it with {@link CharSequence#toString()}. Interpretations returned from the cache of an interpreter are
+ * not interpreted again and are therefore not seen by the listener.
+ * <p>
+ * The arguments of a {@link LazyFunctionFlag} are parsed when their values are retrieved, after the interpretation is
+ * done, so the listener only sees them being recorded. Interpretations made by
+ * {@link ParameterInterpreter#interpretCollecting(String[])} report their problems as {@link Diagnostic}s and are
+ * never seen as failed.
+ */
+public interface InterpretationListener {
+
+    /**
+     * Called for every token before it is interpreted, including the tokens read from response files
+     */
+    default void tokenScanned(CharSequence token) {
+    }
+
+    /**
+     * Called when a token is matched to a flag, either because it names the flag or because it is an unnamed argument
+     * of a required flag
+     */
+    default void flagMatched(Flag flag, CharSequence token) {
+    }
+
+    /**
+     * Called when a token starts with the prefix but does not name any flag, such tokens are ignored
+     */
+    default void unknownFlagIgnored(CharSequence token) {
+    }
+
+    /**
+     * Called right before the argument of a flag is parsed
+     */
+    default void parseStarted(Flag flag) {
+    }
+
+    /**
+     * Called when the argument of a flag has been parsed successfully
+     *
+     * @param nanos the number of nanoseconds it took to parse the argument
+     */
+    default void parseEnded(Flag flag, long nanos) {
+    }
+
+    /**
+     * Called when an interpretation fails, right before the exception is thrown. Called at most once per
+     * interpretation, for the exception that the interpretation fails with.
+     *
+     * @param flag the flag that caused the exception, or null if it was not caused by a single flag
+     */
+    default void exceptionThrown(Flag flag, ParameterException exception) {
+    }
+
+}
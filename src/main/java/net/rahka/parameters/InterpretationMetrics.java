@@ -0,0 +1,203 @@
+package net.rahka.parameters;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An {@link InterpretationListener} that counts the steps of interpretations and keeps a latency histogram of the
+ * parsing of every flag. All counters are {@link LongAdder}s, so threads that interpret at the same time rarely
+ * contend on the same counter.
+ * <p>
+ * The histograms have one bucket per power of two nanoseconds, bucket {@code i} counts the parses that took at least
+ * {@code 2^(i-1)} but less than {@code 2^i} nanoseconds. Bucket 0 counts the parses that took no measurable time.
+ */
+public class InterpretationMetrics implements InterpretationListener {
+
+    private final LongAdder tokens = new LongAdder();
+    private final LongAdder matches = new LongAdder();
+    private final LongAdder unknownFlags = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final Map<String, FlagMetrics> flags = new ConcurrentHashMap<>();
+
+    @Override
+    public void tokenScanned(CharSequence token) {
+        tokens.increment();
+    }
+
+    @Override
+    public void flagMatched(Flag flag, CharSequence token) {
+        matches.increment();
+    }
+
+    @Override
+    public void unknownFlagIgnored(CharSequence token) {
+        unknownFlags.increment();
+    }
+
+    @Override
+    public void parseEnded(Flag flag, long nanos) {
+        metrics(flag).record(nanos);
+    }
+
+    @Override
+    public void exceptionThrown(Flag flag, ParameterException exception) {
+        failures.increment();
+        if (flag != null) {
+            metrics(flag).failures.increment();
+        }
+    }
+
+    private FlagMetrics metrics(Flag flag) {
+        return flags.computeIfAbsent(flag.getName(), name -> new FlagMetrics());
+    }
+
+    /**
+     * Returns the number of tokens that were scanned
+     */
+    public long getTokens() {
+        return tokens.sum();
+    }
+
+    /**
+     * Returns the number of tokens that were matched to a flag
+     */
+    public long getMatches() {
+        return matches.sum();
+    }
+
+    /**
+     * Returns the number of tokens that were ignored because they did not name any flag
+     */
+    public long getUnknownFlags() {
+        return unknownFlags.sum();
+    }
+
+    /**
+     * Returns the number of interpretations that failed, an interpretation counts once no matter how many of its
+     * flags failed, see {@link InterpretationListener#exceptionThrown(Flag, ParameterException)}
+     */
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    /**
+     * Returns the metrics of the flag with the given name, or null if the flag was never parsed and never failed
+     */
+    public FlagMetrics getFlagMetrics(String name) {
+        return flags.get(name);
+    }
+
+    /**
+     * Returns an unmodifiable view of the metrics of all flags that were parsed or failed, keyed by their names
+     */
+    public Map<String, FlagMetrics> getFlagMetrics() {
+        return Collections.unmodifiableMap(flags);
+    }
+
+    @Override
+    public String toString() {
+        return "InterpretationMetrics{tokens=" + getTokens() + ", matches=" + getMatches() + ", unknownFlags=" + getUnknownFlags() + ", failures=" + getFailures() + ", flags=" + flags + "}";
+    }
+
+    /**
+     * The metrics of a single flag, see {@link InterpretationMetrics}
+     */
+    public static final class FlagMetrics {
+
+        private static final int BUCKETS = 64;
+
+        private final LongAdder parses = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+        private final LongAdder[] histogram = new LongAdder[BUCKETS];
+
+        private FlagMetrics() {
+            for (int i = 0; i < BUCKETS; i++) {
+                histogram[i] = new LongAdder();
+            }
+        }
+
+        private void record(long nanos) {
+            nanos = Math.max(nanos, 0);
+            parses.increment();
+            this.nanos.add(nanos);
+            histogram[bucket(nanos)].increment();
+        }
+
+        private static int bucket(long nanos) {
+            return Math.min(Long.SIZE - Long.numberOfLeadingZeros(nanos), BUCKETS - 1);
+        }
+
+        /**
+         * Returns the number of times the flag's argument was parsed successfully
+         */
+        public long getParses() {
+            return parses.sum();
+        }
+
+        /**
+         * Returns the number of interpretations that failed because of the flag
+         */
+        public long getFailures() {
+            return failures.sum();
+        }
+
+        /**
+         * Returns the total number of nanoseconds spent parsing the flag's argument
+         */
+        public long getTotalNanos() {
+            return nanos.sum();
+        }
+
+        /**
+         * Returns a snapshot of the latency histogram, see {@link InterpretationMetrics}
+         */
+        public long[] getHistogram() {
+            long[] counts = new long[BUCKETS];
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] = histogram[i].sum();
+            }
+
+            return counts;
+        }
+
+        /**
+         * Returns an upper bound of the given percentile of the parse latencies in nanoseconds, which is the upper
+         * bound of the histogram bucket that the percentile falls in. Returns 0 if the flag was never parsed.
+         *
+         * @param percentile a percentile between 0 and 100
+         * @throws IllegalArgumentException if the percentile is not between 0 and 100
+         */
+        public long getPercentileNanos(double percentile) {
+            if (!(percentile >= 0 && percentile <= 100)) {
+                throw new IllegalArgumentException("The percentile must be between 0 and 100!");
+            }
+
+            long[] counts = getHistogram();
+            long total = 0;
+            for (long count : counts) {
+                total += count;
+            }
+
+            long rank = (long) Math.ceil(total * percentile / 100);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts[i];
+                if (seen >= rank && seen > 0) {
+                    return (i == 0) ? 0 : (i >= BUCKETS - 1) ? Long.MAX_VALUE : (1L << i) - 1;
+                }
+            }
+
+            return 0;
+        }
+
+        @Override
+        public String toString() {
+            return "FlagMetrics{parses=" + getParses() + ", failures=" + getFailures() + ", totalNanos=" + getTotalNanos() + "}";
+        }
+
+    }
+
+}
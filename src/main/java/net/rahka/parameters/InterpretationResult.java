@@ -0,0 +1,53 @@
+package net.rahka.parameters;
+
+/**
+ * The outcome of interpreting one set of arguments with {@link ParameterInterpreter#interpretAll(java.util.stream.Stream)}.
+ * It holds either the interpretation of the arguments or the exception that interpreting them threw.
+ */
+public final class InterpretationResult {
+
+    private final String[] args;
+    private final ParameterInterpretation interpretation;
+    private final ParameterException exception;
+
+    InterpretationResult(String[] args, ParameterInterpretation interpretation, ParameterException exception) {
+        this.args = args;
+        this.interpretation = interpretation;
+        this.exception = exception;
+    }
+
+    /**
+     * Returns whether or not the arguments were interpreted without any exception
+     */
+    public boolean isSuccess() {
+        return exception == null;
+    }
+
+    /**
+     * Returns the arguments that were interpreted
+     */
+    public String[] getArgs() {
+        return args;
+    }
+
+    /**
+     * Returns the interpretation of the arguments
+     *
+     * @throws ParameterException the exception that was thrown when interpreting the arguments, if any
+     */
+    public ParameterInterpretation getInterpretation() {
+        if (exception != null) {
+            throw exception;
+        }
+
+        return interpretation;
+    }
+
+    /**
+     * Returns the exception that was thrown when interpreting the arguments, or null if there was none
+     */
+    public ParameterException getException() {
+        return exception;
+    }
+
+}
@@ -0,0 +1,47 @@
+package net.rahka.parameters;
+
+/**
+ * A {@link FunctionFlag} that does not parse its argument when the arguments are interpreted. The interpretation
+ * only records the argument, and the argument is parsed the first time its value is retrieved from the
+ * interpretation. The parsed value is remembered, so the parser runs at most once per interpretation even if the
+ * interpretation is shared between threads.
+ * <p>
+ * This is useful for parsers that are expensive, such as parsers that load files, when the value is not needed by
+ * every code path. Any exceptions thrown when parsing the argument are wrapped inside an
+ * {@link ExceptionCaughtException} that is thrown by {@link ParameterInterpretation#get(String)} and the other
+ * methods that retrieve the value, every time the value is retrieved.
+ */
+public class LazyFunctionFlag<T> extends FunctionFlag<T> {
+
+    /**
+     * @param name        the name of the flag
+     * @param flag        the short-hand name of the flag
+     * @param description the description of the flag
+     * @param parser      the parsing function of the flag
+     * @param required    whether or not this flag is required
+     */
+    public LazyFunctionFlag(String name, String flag, String description, Function<T> parser, boolean required) {
+        super(name, flag, description, parser, required);
+    }
+
+    /**
+     * @param name        the name of the flag
+     * @param flag        the short-hand name of the flag
+     * @param description the description of the flag
+     * @param parser      the parsing function of the flag
+     */
+    public LazyFunctionFlag(String name, String flag, String description, Function<T> parser) {
+        this(name, flag, description, parser, false);
+    }
+
+    @Override
+    boolean parsesConcurrently() {
+        return false;
+    }
+
+    @Override
+    void parseInto(ParameterInterpretation interpretation, int ordinal, CharSequence arg) {
+        interpretation.addFlag(ordinal, new LazyValue(this, arg.toString()));
+    }
+
+}
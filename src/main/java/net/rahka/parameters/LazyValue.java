@@ -0,0 +1,65 @@
+package net.rahka.parameters;
+
+/**
+ * The value of a {@link LazyFunctionFlag} in an interpretation. It holds the argument until the value is first
+ * retrieved, at which point the argument is parsed and the result (or the exception) is remembered.
+ */
+final class LazyValue {
+
+    private final Flag flag;
+
+    /**
+     * The argument that is yet to be parsed, it is cleared once it has been parsed
+     */
+    private String argument;
+
+    private Object value;
+    private ParameterException exception;
+
+    /**
+     * Whether or not the argument has been parsed, written after the value or exception
+     */
+    private volatile boolean parsed;
+
+    LazyValue(Flag flag, String argument) {
+        this.flag = flag;
+        this.argument = argument;
+    }
+
+    /**
+     * Returns the parsed value, parsing the argument if it has not already been parsed
+     *
+     * @throws ParameterException the exception that parsing the argument threw, wrapped in an
+     *                            {@link ExceptionCaughtException} unless it already was a {@link ParameterException}
+     */
+    Object get() {
+        if (!parsed) {
+            synchronized (this) {
+                if (!parsed) {
+                    parse();
+                }
+            }
+        }
+
+        if (exception != null) {
+            throw exception;
+        }
+
+        return value;
+    }
+
+    private void parse() {
+        try {
+            value = flag.parseArgument(argument);
+        } catch (ParameterException e) {
+            exception = e;
+        } catch (Exception e) {
+            String msg = "Exception thrown when parsing argument for flag (" + flag.getName() + ")!";
+            exception = new ExceptionCaughtException(msg, e);
+        }
+
+        argument = null;
+        parsed = true;
+    }
+
+}
@@ -0,0 +1,182 @@
+package net.rahka.parameters;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * A flag that requires a argument and collects the parsed arguments of all its occurrences into a {@link List}, such
+ * as {@code -I include -I lib}. If the flag has a delimiter then every argument is split at the delimiter first and
+ * every part is parsed on its own, so {@code --names a,b -n c} results in the list {@code [a, b, c]}. The list is
+ * in the order the arguments occur and cannot be changed.
+ * <p>
+ * Arguments are split in a single pass over their characters. Any exceptions thrown when parsing the arguments will
+ * be wrapped inside a {@link ParameterException} that will be then be thrown by
+ * {@link ParameterInterpreter#interpret(String[])}. Use {@link IntListFlag} for lists of ints.
+ */
+public class ListFlag<T> extends Flag {
+
+    /**
+     * The delimiter used by flags whose arguments are not split
+     */
+    private static final int NO_DELIMITER = -1;
+
+    private final FunctionFlag.Function<T> parser;
+    private final int delimiter;
+
+    private ListFlag(String name, String flag, String description, int delimiter, FunctionFlag.Function<T> parser, boolean required) {
+        super(name, flag, description, required);
+        this.delimiter = delimiter;
+        this.parser = parser;
+    }
+
+    /**
+     * @param name        the name of the flag
+     * @param flag        the short-hand name of the flag
+     * @param description the description of the flag
+     * @param delimiter   the character at which arguments are split
+     * @param parser      the parsing function of the parts of the arguments
+     * @param required    whether or not this flag is required
+     */
+    public ListFlag(String name, String flag, String description, char delimiter, FunctionFlag.Function<T> parser, boolean required) {
+        this(name, flag, description, (int) delimiter, parser, required);
+    }
+
+    /**
+     * Constructs a flag whose arguments are not split, every argument is one element of the list
+     *
+     * @param name        the name of the flag
+     * @param flag        the short-hand name of the flag
+     * @param description the description of the flag
+     * @param parser      the parsing function of the arguments
+     * @param required    whether or not this flag is required
+     */
+    public ListFlag(String name, String flag, String description, FunctionFlag.Function<T> parser, boolean required) {
+        this(name, flag, description, NO_DELIMITER, parser, required);
+    }
+
+    /**
+     * Constructs a flag whose arguments are not split, every argument is one element of the list
+     *
+     * @param name        the name of the flag
+     * @param flag        the short-hand name of the flag
+     * @param description the description of the flag
+     * @param parser      the parsing function of the arguments
+     */
+    public ListFlag(String name, String flag, String description, FunctionFlag.Function<T> parser) {
+        this(name, flag, description, NO_DELIMITER, parser, false);
+    }
+
+    @Override
+    protected boolean expectsArgument() {
+        return true;
+    }
+
+    @Override
+    protected Object parseArgument(String arg) throws Exception {
+        Values<T> values = new Values<>();
+        parse(arg, values);
+        return values;
+    }
+
+    @Override
+    Object copyValue(Object value) {
+        return (value instanceof Values) ? ((Values<?>) value).copy() : value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    void parseInto(ParameterInterpretation interpretation, int ordinal, CharSequence arg) throws Exception {
+        Object current = interpretation.slot(ordinal);
+        Values<T> values = (current instanceof Values) ? (Values<T>) current : new Values<>();
+
+        int size = values.size();
+        try {
+            parse(arg.toString(), values);
+        } catch (Exception e) {
+            values.truncate(size); //An argument that fails to parse leaves the flag as it was
+            throw e;
+        }
+
+        if (values != current) {
+            interpretation.addFlag(ordinal, values);
+        }
+    }
+
+    private void parse(String arg, Values<T> values) throws Exception {
+        if (delimiter == NO_DELIMITER) {
+            values.append(parser.parse(arg));
+            return;
+        }
+
+        int start = 0;
+        for (int i = 0; i < arg.length(); i++) {
+            if (arg.charAt(i) == delimiter) {
+                values.append(parser.parse(arg.substring(start, i)));
+                start = i + 1;
+            }
+        }
+        values.append(parser.parse(arg.substring(start)));
+    }
+
+    /**
+     * An unmodifiable list that only the flag can add elements to. Copies of the list share its array, see
+     * {@link Extent}.
+     */
+    private static final class Values<T> extends AbstractList<T> implements RandomAccess {
+
+        private Object[] elements;
+        private int size;
+        private Extent extent;
+
+        private Values() {
+            this.elements = new Object[8];
+            this.extent = new Extent();
+        }
+
+        private Values(Values<T> values) {
+            this.elements = values.elements;
+            this.size = values.size;
+            this.extent = values.extent;
+        }
+
+        private Values<T> copy() {
+            return new Values<>(this);
+        }
+
+        private void truncate(int size) {
+            if (extent.used == this.size) {
+                Arrays.fill(elements, size, this.size, null);
+                extent.used = size;
+            }
+            this.size = size;
+        }
+
+        private void append(T element) {
+            if (size == elements.length || size != extent.used) {
+                elements = Arrays.copyOf(elements, Math.max(size * 2, 8));
+                extent = new Extent();
+            }
+            elements[size++] = element;
+            extent.used = size;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+            }
+
+            return (T) elements[index];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+    }
+
+}
@@ -1,14 +1,18 @@
 package net.rahka.parameters;
 
+import java.util.Collection;
 import java.util.Map;
 
 /**
- * This class is a Flag that only accepts arguments that are keys in a map. It iterates throught the map's
- * keys and checks if the key matches the argument. It uses {@link Object#toString} in order to check for matches.
- * The matching is case-sensitive.
+ * This class is a Flag that only accepts arguments that are keys in a map. It uses {@link Object#toString} on the
+ * map's keys in order to check for matches. The matching is case-sensitive unless the flag is constructed to ignore
+ * case.
  * <p>
  * If more than one object matches a argument then only the the first object encountered by the collection's
  * iterator is parsed.
+ * <p>
+ * The map is indexed by the string representation of its keys the first time an argument is parsed, changes made to
+ * the map after that are not seen by the flag.
  */
 public class MapFlag<T> extends Flag {
 
@@ -17,16 +21,44 @@ public class MapFlag<T> extends Flag {
      */
     private final Map<?, T> map;
 
+    /**
+     * Whether or not arguments are matched without regard to case
+     */
+    private final boolean ignoreCase;
+
+    /**
+     * The index of the map's keys, it is built when the first argument is parsed
+     */
+    private volatile OptionIndex<T> index;
+
+    /**
+     * The trie of the options used for completion, created when first needed
+     */
+    private volatile CompletionTrie completions;
+
     /**
      * @param name        the name of flag
      * @param flag        the short-hand name of the flag
      * @param description the description of the flag
      * @param map         the map of accepted arguments
      * @param required    whether or not the flag is required
+     * @param ignoreCase  whether or not arguments are matched without regard to case
      */
-    public MapFlag(String name, String flag, String description, Map<?, T> map, boolean required) {
+    public MapFlag(String name, String flag, String description, Map<?, T> map, boolean required, boolean ignoreCase) {
         super(name, flag, description, required);
         this.map = map;
+        this.ignoreCase = ignoreCase;
+    }
+
+    /**
+     * @param name        the name of flag
+     * @param flag        the short-hand name of the flag
+     * @param description the description of the flag
+     * @param map         the map of accepted arguments
+     * @param required    whether or not the flag is required
+     */
+    public MapFlag(String name, String flag, String description, Map<?, T> map, boolean required) {
+        this(name, flag, description, map, required, false);
     }
 
     /**
@@ -46,13 +78,51 @@ public class MapFlag<T> extends Flag {
 
     @Override
     protected Object parseArgument(String arg) throws ParameterException {
-        for (Object key : map.keySet()) {
-            if (key.toString().equals(arg)) {
-                return map.get(key);
-            }
+        OptionIndex<T> index = index();
+
+        T t = index.get(arg);
+        if (t != null || index.contains(arg)) {
+            return t;
         }
 
         throw new NonMatchingArgumentException(arg, map.keySet());
     }
 
+    @Override
+    Collection<?> options() {
+        return map.keySet();
+    }
+
+    @Override
+    boolean accepts(String arg) {
+        return index().contains(arg);
+    }
+
+    @Override
+    CompletionTrie optionTrie() {
+        CompletionTrie completions = this.completions;
+        if (completions == null) {
+            completions = new CompletionTrie(ignoreCase);
+            for (Object option : options()) {
+                completions.add(option.toString());
+            }
+            this.completions = completions;
+        }
+
+        return completions;
+    }
+
+    private OptionIndex<T> index() {
+        OptionIndex<T> index = this.index;
+        if (index == null) {
+            index = new OptionIndex<>(ignoreCase);
+            for (Map.Entry<?, T> entry : map.entrySet()) {
+                index.add(entry.getKey(), entry.getValue());
+            }
+            this.index = index;
+        }
+
+        return index;
+    }
+
 }
\ No newline at end of file
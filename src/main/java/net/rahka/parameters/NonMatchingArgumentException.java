@@ -5,12 +5,38 @@ import java.util.stream.Collectors;
 
 /**
  * An exception used to indicate that an argument supplied to a {@link CollectionFlag} or {@link MapFlag }does not
- * match any object.
+ * match any object, or that a {@link CommandRouter} got a command it does not have.
+ * <p>
+ * The message lists all allowed options, it is only built when it is first retrieved since the options can be many.
  */
 public class NonMatchingArgumentException extends ParameterException {
 
+    private final String argument;
+    private final Collection<?> options;
+    private volatile String message;
+
     public NonMatchingArgumentException(String msg, Collection<?> options) {
-        super("Invalid option (" + msg + ")! Allowed options are {" + options.stream().map(Object::toString).collect(Collectors.joining(", ")) + "}!");
+        super(null);
+        this.argument = msg;
+        this.options = options;
+    }
+
+    @Override
+    public String getMessage() {
+        String message = this.message;
+        if (message == null) {
+            message = message(argument, options);
+            this.message = message;
+        }
+
+        return message;
+    }
+
+    /**
+     * Builds the message of an argument that does not match any of the options
+     */
+    static String message(String argument, Collection<?> options) {
+        return "Invalid option (" + argument + ")! Allowed options are {" + options.stream().map(Object::toString).collect(Collectors.joining(", ")) + "}!";
     }
 
 }
@@ -0,0 +1,50 @@
+package net.rahka.parameters;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * A lookup table from the string representation of an option to the value it stands for. It is used by
+ * {@link CollectionFlag} and {@link MapFlag} so that matching an argument is a single hash lookup instead of a scan
+ * through every option.
+ * <p>
+ * If more than one option has the same string representation then only the first one added is kept, which preserves
+ * the first-match semantics of the flags.
+ */
+final class OptionIndex<T> {
+
+    private final Map<String, T> options;
+    private final boolean ignoreCase;
+
+    OptionIndex(boolean ignoreCase) {
+        this.options = new HashMap<>();
+        this.ignoreCase = ignoreCase;
+    }
+
+    /**
+     * Adds an option unless an option with the same string representation was already added
+     */
+    void add(Object key, T value) {
+        options.putIfAbsent(normalize(key.toString()), value);
+    }
+
+    /**
+     * Returns whether or not an option matches the argument
+     */
+    boolean contains(String argument) {
+        return options.containsKey(normalize(argument));
+    }
+
+    /**
+     * Returns the value of the option that matches the argument, or null if no option matches it
+     */
+    T get(String argument) {
+        return options.get(normalize(argument));
+    }
+
+    private String normalize(String key) {
+        return ignoreCase ? key.toLowerCase(Locale.ROOT) : key;
+    }
+
+}
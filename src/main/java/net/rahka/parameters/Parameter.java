@@ -0,0 +1,48 @@
+package net.rahka.parameters;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a field, or a component of a record, of a type annotated with {@link Parameters} that is bound from the flag
+ * it describes. The type of the field decides the type of the flag:
+ * <ul>
+ *     <li>{@code int}, {@code long} and {@code double}, and their boxed types, use {@link IntFlag}, {@link LongFlag}
+ *     and {@link DoubleFlag}</li>
+ *     <li>{@code boolean} and {@link Boolean} use a {@link Flag} without argument, the field is true if the flag is
+ *     present</li>
+ *     <li>{@link String} and enums use a {@link FunctionFlag} that takes the argument as it is or as the name of a
+ *     constant</li>
+ * </ul>
+ * Fields of classes must not be private, and fields whose flag is not present keep their values. Components of
+ * records whose flag is not present are given the default value of their type.
+ */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.FIELD)
+public @interface Parameter {
+
+    /**
+     * The name of the flag, the name of the field if empty
+     */
+    String name() default "";
+
+    /**
+     * The short-hand name of the flag, the name of the flag if empty
+     */
+    String flag() default "";
+
+    /**
+     * The description of the flag
+     */
+    String description() default "";
+
+    /**
+     * Whether or not the flag is required, flags without an argument cannot be required
+     */
+    boolean required() default false;
+
+}
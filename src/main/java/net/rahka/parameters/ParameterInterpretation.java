@@ -1,22 +1,125 @@
 package net.rahka.parameters;
 
-import java.util.HashMap;
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * This class is constructed by {@link ParameterInterpreter} and contains the parsed arguments of whatever was parsed.
+ * <p>
+ * Every flag of the interpreter has a slot in the interpretation, given by the flag's ordinal. The parsed values are
+ * stored in an array and whether or not a flag is present is stored in a bitset, so retrieving a value by its
+ * {@link FlagHandle} is a plain array access.
  */
 public class ParameterInterpretation {
 
-    HashMap<String, Object> flags;
-    LinkedList<Flag> required;
+    /**
+     * The snapshot of flags that this interpretation was made with
+     */
+    final FlagIndex index;
+
+    /**
+     * Marks a slot whose value is stored in {@link #primitives}
+     */
+    private static final Object PRIMITIVE = new Object();
+
+    private final Object[] values;
+    private final long[] present;
+
+    /**
+     * The values of {@link PrimitiveFlag}s, only allocated if the interpreter has any such flags
+     */
+    private final long[] primitives;
+
+    /**
+     * The arguments of the positionals, only allocated if the interpreter has any positionals
+     */
+    private final PositionalArguments positionals;
+
+    /**
+     * Position in the interpreter's required flags before which every required flag is present
+     */
+    private int required;
+
+    /**
+     * Whether or not this interpretation may be handed out more than once, by a cache or as a snapshot, in which case
+     * it must never be reset
+     */
+    private boolean shared;
+
+    /**
+     * The interpreter that last filled this interpretation again, see
+     * {@link TokenInterpreter#refilling(ParameterInterpretation, boolean, InterpretationListener)}
+     */
+    TokenInterpreter filler;
 
     /**
      * Only {@link ParameterInterpreter} should be able to create interpretations.
      */
-    ParameterInterpretation() {
-        required = new LinkedList<>();
-        flags = new HashMap<>();
+    ParameterInterpretation(FlagIndex index) {
+        this.index = index;
+        this.values = new Object[index.flags.length];
+        this.present = new long[(index.flags.length + 63) >>> 6];
+        this.primitives = index.primitives ? new long[index.flags.length] : null;
+        this.positionals = (index.positionals.length > 0) ? new PositionalArguments() : null;
+    }
+
+    /**
+     * Used by {@link IncrementalInterpreter} to copy an interpretation so that a snapshot of it is not changed by the
+     * tokens that follow. Lists of arguments share their storage with the copy, so copying costs the same no matter
+     * how many arguments there are.
+     */
+    private ParameterInterpretation(ParameterInterpretation interpretation) {
+        this.index = interpretation.index;
+        this.values = interpretation.values.clone();
+        this.present = interpretation.present.clone();
+        this.primitives = (interpretation.primitives == null) ? null : interpretation.primitives.clone();
+        this.positionals = (interpretation.positionals == null) ? null : interpretation.positionals.copy();
+        this.required = interpretation.required;
+
+        for (int ordinal = 0; ordinal < values.length; ordinal++) {
+            if (values[ordinal] != null && values[ordinal] != PRIMITIVE) {
+                values[ordinal] = index.flags[ordinal].copyValue(values[ordinal]);
+            }
+        }
+    }
+
+    /**
+     * Returns a copy of this interpretation that is not affected by later changes to this interpretation
+     */
+    ParameterInterpretation copy() {
+        return new ParameterInterpretation(this);
+    }
+
+    /**
+     * Used by {@link ParameterInterpreter} to clear this interpretation so that it can be filled again. Only the slots
+     * of present flags are cleared, and no storage is allocated or given up.
+     *
+     * @throws IllegalArgumentException if this interpretation is shared, see {@link #share()}
+     */
+    void reset() {
+        if (shared) {
+            throw new IllegalArgumentException("A cached or shared interpretation cannot be reused!");
+        }
+
+        for (int word = 0; word < present.length; word++) {
+            for (long bits = present[word]; bits != 0; bits &= bits - 1) {
+                values[(word << 6) + Long.numberOfTrailingZeros(bits)] = null;
+            }
+            present[word] = 0;
+        }
+        if (positionals != null) {
+            positionals.reset();
+        }
+        required = 0;
+    }
+
+    /**
+     * Marks this interpretation as handed out more than once, such as by {@link InterpretationCache} or as a snapshot
+     * of an {@link IncrementalInterpreter}, after which it can no longer be reset
+     */
+    void share() {
+        shared = true;
     }
 
     /**
@@ -24,11 +127,13 @@ public class ParameterInterpretation {
      * or in cases where a flag has parsed its argument to null for some reason. Use {@link #has(String)} before
      * calling this or use the {@link #get(String, Object)} in order to avoid this.
      *
-     * @throws ClassCastException if the parsed object cannot be cast to the inferred type
+     * @throws ClassCastException       if the parsed object cannot be cast to the inferred type
+     * @throws ExceptionCaughtException if the flag is a {@link LazyFunctionFlag} and parsing its argument threw
      */
     @SuppressWarnings("unchecked")
     public <T> T get(String name) {
-        return (T) flags.get(name);
+        int ordinal = index.ordinal(name);
+        return (ordinal < 0) ? null : (T) value(ordinal);
     }
 
     /**
@@ -40,8 +145,9 @@ public class ParameterInterpretation {
      */
     @SuppressWarnings("unchecked")
     public <T> T get(String name, T alt) {
-        if (has(name)) {
-            return (T) flags.get(name);
+        int ordinal = index.ordinal(name);
+        if (ordinal >= 0 && isPresent(ordinal)) {
+            return (T) value(ordinal);
         } else {
             return alt;
         }
@@ -51,32 +157,322 @@ public class ParameterInterpretation {
      * Checks whether or not a parameter is present in this interpretation
      */
     public boolean has(String string) {
-        return flags.containsKey(string);
+        int ordinal = index.ordinal(string);
+        return ordinal >= 0 && isPresent(ordinal);
+    }
+
+    /**
+     * Returns the parsed value of the flag that the handle refers to, see {@link #get(String)}.
+     *
+     * @throws ClassCastException if the parsed object cannot be cast to the type of the handle
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(FlagHandle<T> handle) {
+        int ordinal = index.slot(handle);
+        return (ordinal >= 0 && isPresent(ordinal)) ? (T) value(ordinal) : null;
+    }
+
+    /**
+     * Returns the parsed value of the flag that the handle refers to, or the alternate object if the flag is not
+     * present, see {@link #get(String, Object)}.
+     *
+     * @throws ClassCastException if the parsed object cannot be cast to the type of the handle
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(FlagHandle<T> handle, T alt) {
+        int ordinal = index.slot(handle);
+        return (ordinal >= 0 && isPresent(ordinal)) ? (T) value(ordinal) : alt;
+    }
+
+    /**
+     * Checks whether or not the flag that the handle refers to is present in this interpretation
+     */
+    public boolean has(FlagHandle<?> handle) {
+        int ordinal = index.slot(handle);
+        return ordinal >= 0 && isPresent(ordinal);
+    }
+
+    /**
+     * Returns the parsed value of a parameter as an int, if no parameter with the given name is present then the
+     * alternate value will be returned. Values of {@link IntFlag}s are returned without any boxing, values of other
+     * flags are unboxed.
+     *
+     * @throws ClassCastException   if the parsed value is not a number, or is the value of a {@link LongFlag} or a
+     *                              {@link DoubleFlag}, which cannot be unboxed into an int
+     * @throws NullPointerException if the flag parsed its argument to null
+     */
+    public int getInt(String name, int alt) {
+        int ordinal = index.ordinal(name);
+        return (ordinal >= 0 && isPresent(ordinal)) ? toInt(ordinal) : alt;
+    }
+
+    /**
+     * Returns the parsed value of the flag that the handle refers to as an int, see {@link #getInt(String, int)}.
+     */
+    public int getInt(FlagHandle<? extends Number> handle, int alt) {
+        int ordinal = index.slot(handle);
+        return (ordinal >= 0 && isPresent(ordinal)) ? toInt(ordinal) : alt;
+    }
+
+    /**
+     * Returns the parsed value of a parameter as a long, if no parameter with the given name is present then the
+     * alternate value will be returned. Values of {@link LongFlag}s are returned without any boxing, values of other
+     * flags are unboxed.
+     *
+     * @throws ClassCastException   if the parsed value is not a number, or is the value of a {@link DoubleFlag},
+     *                              which cannot be unboxed into a long
+     * @throws NullPointerException if the flag parsed its argument to null
+     */
+    public long getLong(String name, long alt) {
+        int ordinal = index.ordinal(name);
+        return (ordinal >= 0 && isPresent(ordinal)) ? toLong(ordinal) : alt;
+    }
+
+    /**
+     * Returns the parsed value of the flag that the handle refers to as a long, see {@link #getLong(String, long)}.
+     */
+    public long getLong(FlagHandle<? extends Number> handle, long alt) {
+        int ordinal = index.slot(handle);
+        return (ordinal >= 0 && isPresent(ordinal)) ? toLong(ordinal) : alt;
+    }
+
+    /**
+     * Returns the parsed value of a parameter as a double, if no parameter with the given name is present then the
+     * alternate value will be returned. Values of {@link DoubleFlag}s are returned without any boxing, values of
+     * other flags are unboxed.
+     *
+     * @throws ClassCastException   if the parsed value is not a number
+     * @throws NullPointerException if the flag parsed its argument to null
+     */
+    public double getDouble(String name, double alt) {
+        int ordinal = index.ordinal(name);
+        return (ordinal >= 0 && isPresent(ordinal)) ? toDouble(ordinal) : alt;
+    }
+
+    /**
+     * Returns the parsed value of the flag that the handle refers to as a double, see
+     * {@link #getDouble(String, double)}.
+     */
+    public double getDouble(FlagHandle<? extends Number> handle, double alt) {
+        int ordinal = index.slot(handle);
+        return (ordinal >= 0 && isPresent(ordinal)) ? toDouble(ordinal) : alt;
+    }
+
+    /**
+     * Returns the parsed value of a parameter as a boolean, if no parameter with the given name is present then the
+     * alternate value will be returned. Values of {@link BooleanFlag}s are returned without any boxing, values of
+     * other flags are unboxed.
+     *
+     * @throws ClassCastException   if the parsed value is not a boolean
+     * @throws NullPointerException if the flag parsed its argument to null
+     */
+    public boolean getBoolean(String name, boolean alt) {
+        int ordinal = index.ordinal(name);
+        return (ordinal >= 0 && isPresent(ordinal)) ? toBoolean(ordinal) : alt;
+    }
+
+    /**
+     * Returns the parsed value of the flag that the handle refers to as a boolean, see
+     * {@link #getBoolean(String, boolean)}.
+     */
+    public boolean getBoolean(FlagHandle<Boolean> handle, boolean alt) {
+        int ordinal = index.slot(handle);
+        return (ordinal >= 0 && isPresent(ordinal)) ? toBoolean(ordinal) : alt;
+    }
+
+    /**
+     * Returns the arguments of all positionals in the order they were given, or an empty list if the interpreter has
+     * no positionals. If the arguments were consecutive elements of the array given to the interpreter then the list
+     * is a view of the array, so changing the array changes the list.
+     */
+    public List<String> getPositionals() {
+        return (positionals == null) ? Collections.emptyList() : positionals;
+    }
+
+    /**
+     * Returns the arguments of the positional with the given name, which are a view of {@link #getPositionals()}, or
+     * null if the interpreter has no such positional. The list is empty if the positional got no arguments.
+     */
+    public List<String> getPositional(String name) {
+        int positional = index.positional(name);
+        if (positional < 0) {
+            return null;
+        }
+
+        int count = positionals.size();
+        int start = (positional == 0) ? 0 : index.positionalEnd(positional - 1, count);
+        return positionals.subList(start, index.positionalEnd(positional, count));
+    }
+
+    /**
+     * Returns the first argument of the positional with the given name, or the alternate string if the positional
+     * got no arguments or the interpreter has no such positional
+     */
+    public String getPositional(String name, String alt) {
+        List<String> arguments = getPositional(name);
+        return (arguments == null || arguments.isEmpty()) ? alt : arguments.get(0);
+    }
+
+    /**
+     * Used by {@link ParameterInterpreter} to add the argument of a positional, which is the element at the position
+     * of the array if the array is not null
+     */
+    void addPositional(CharSequence argument, String[] array, int position) {
+        positionals.add(argument, array, position);
+    }
+
+    /**
+     * Used by {@link ParameterInterpreter} to get the number of positional arguments
+     */
+    int positionalCount() {
+        return (positionals == null) ? 0 : positionals.size();
+    }
+
+    /**
+     * Used by {@link ParameterInterpreter} to check whether or not the positional arguments are a view of an array
+     */
+    boolean hasPositionalView() {
+        return positionals != null && positionals.isView();
     }
 
     /**
      * Used by {@link ParameterInterpreter} to add parsed flags to the interpretation. The object may be null, in
      * that case the {@link #get(String)} and {@link #get(String, Object)} will also return null for the same flag.
      */
-    void addFlag(Flag flag, Object object) {
-        flags.put(flag.getName(), object);
-        required.remove(flag);
+    void addFlag(int ordinal, Object object) {
+        values[ordinal] = object;
+        present[ordinal >>> 6] |= 1L << ordinal;
+    }
+
+    /**
+     * Used by flags that accumulate the arguments of all their occurrences, such as {@link IntListFlag}, to get the
+     * value they added earlier. Returns null if the flag is not present.
+     */
+    Object slot(int ordinal) {
+        return values[ordinal];
+    }
+
+    /**
+     * Used by {@link PrimitiveFlag} to add its parsed value to the interpretation without boxing it. The value is
+     * boxed if the slot belongs to a later flag with the same name, since only the flag of the slot is known when the
+     * value is retrieved.
+     */
+    void addPrimitive(PrimitiveFlag flag, int ordinal, long bits) {
+        if (index.flags[ordinal] != flag) {
+            addFlag(ordinal, flag.box(bits));
+            return;
+        }
+
+        primitives[ordinal] = bits;
+        addFlag(ordinal, PRIMITIVE);
     }
 
     /**
-     * Used by {@link ParameterInterpreter} to add the interpreter's required flags
+     * Used by {@link ParameterInterpreter} to pop the first required flag that is not yet present. Returns the
+     * ordinal of the flag, or -1 if all required flags are present.
      */
-    void prepareRequired(Flag[] flags) {
-        for (Flag flag : flags) {
-            required.addLast(flag);
+    int popRequired() {
+        int ordinal = peekRequired();
+        if (ordinal >= 0) {
+            required++;
         }
+
+        return ordinal;
+    }
+
+    /**
+     * Used by {@link ParameterInterpreter} to get the first required flag that is not yet present without popping it.
+     * Returns the ordinal of the flag, or -1 if all required flags are present. Required flags that are present are
+     * skipped once and for all, so checking after every token costs amortized constant time.
+     */
+    int peekRequired() {
+        int[] ordinals = index.required;
+        while (required < ordinals.length && isPresent(index.slots[ordinals[required]])) {
+            required++;
+        }
+
+        return (required < ordinals.length) ? ordinals[required] : -1;
+    }
+
+    /**
+     * Used by {@link ParameterInterpreter} to check if any required flags are not present
+     */
+    boolean isMissingRequired() {
+        return peekRequired() >= 0;
+    }
+
+    /**
+     * Used by {@link ParameterInterpreter} to get the required flags that are not present
+     */
+    List<Flag> missingRequired() {
+        List<Flag> missing = new ArrayList<>();
+        for (int ordinal : index.required) {
+            if (!isPresent(index.slots[ordinal])) {
+                missing.add(index.flags[ordinal]);
+            }
+        }
+
+        return missing;
+    }
+
+    /**
+     * Used by {@link ParameterInterpreter} to get the constraints that the present flags violate
+     */
+    List<Constraint> violatedConstraints() {
+        return index.violated(present);
+    }
+
+    /**
+     * Returns the value in the slot, boxing primitive values and parsing the arguments of lazy values
+     */
+    private Object value(int ordinal) {
+        Object value = values[ordinal];
+        if (value == PRIMITIVE) {
+            return ((PrimitiveFlag) index.flags[ordinal]).box(primitives[ordinal]);
+        } else if (value instanceof LazyValue) {
+            return ((LazyValue) value).get();
+        }
+
+        return value;
+    }
+
+    private int toInt(int ordinal) {
+        if (values[ordinal] == PRIMITIVE) {
+            return ((PrimitiveFlag) index.flags[ordinal]).toInt(primitives[ordinal]);
+        }
+
+        return ((Number) value(ordinal)).intValue();
+    }
+
+    private long toLong(int ordinal) {
+        if (values[ordinal] == PRIMITIVE) {
+            return ((PrimitiveFlag) index.flags[ordinal]).toLong(primitives[ordinal]);
+        }
+
+        return ((Number) value(ordinal)).longValue();
+    }
+
+    private double toDouble(int ordinal) {
+        if (values[ordinal] == PRIMITIVE) {
+            return ((PrimitiveFlag) index.flags[ordinal]).toDouble(primitives[ordinal]);
+        }
+
+        return ((Number) value(ordinal)).doubleValue();
+    }
+
+    private boolean toBoolean(int ordinal) {
+        if (values[ordinal] == PRIMITIVE) {
+            return ((PrimitiveFlag) index.flags[ordinal]).toBoolean(primitives[ordinal]);
+        }
+
+        return (Boolean) value(ordinal);
     }
 
     /**
-     * Used by {@link ParameterInterpreter} to pop a required flag from the interpretation
+     * Used by {@link ParameterInterpreter} to check whether or not the flag with the ordinal is present
      */
-    Flag popRequired() {
-        return required.removeFirst();
+    boolean isPresent(int ordinal) {
+        return (present[ordinal >>> 6] & (1L << ordinal)) != 0;
     }
 
 }
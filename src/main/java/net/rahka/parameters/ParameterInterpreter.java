@@ -1,6 +1,11 @@
 package net.rahka.parameters;
 
+import java.nio.CharBuffer;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * This class provides argument handling in the form of strings. When constructed it can be given
@@ -15,18 +20,59 @@ import java.util.*;
  * with a flag {@code new Flag("name", "n", "Description")} then we can pass "--name Erik" or "-n Erik", both of
  * these strings will set the flag.
  * <p>
+ * A flag's argument can also be given after '=' in the same string, as in "--name=Erik" or "-n=Erik", and flags with
+ * a single character name can be clustered after a single prefix, as in "-abc" for "-a -b -c". The last flag of a
+ * cluster may expect an argument, which is either the rest of the string or the next string. A string that exactly
+ * names a flag is always taken as that flag. With a longer prefix such as "--" a cluster is "--abc" and an assignment
+ * is "----name=Erik" or "--n=Erik".
+ * <p>
+ * A string that is neither a flag nor the argument of a flag is unnamed. Unnamed strings are given to the required
+ * flags that are not present in the order the flags were added, and once all required flags are present they are the
+ * arguments of the {@link Positional}s, if the interpreter has any, see {@link #addPositionals(Positional...)}.
+ * Otherwise they are ignored. A string that is the prefix twice, such as "--", ends the flags; every string after it is
+ * unnamed, even if it starts with the prefix.
+ * <p>
+ * Flags that are missing from the arguments can be taken from other sources, such as environment variables or a
+ * properties file, see {@link #addSources(ParameterSource...)}.
+ * <p>
  * Exceptions thrown during parsing will be wrapped inside a {@link ParameterException} that gets thrown by
  * {@link #interpret(String[])}.
  * <p>
  * If any required arguments are missing then a {@link MissingFlagException} will be thrown by
  * {@link #interpret(String[])}.
+ * <p>
+ * An interpreter is safe to use from multiple threads, flags can be added while other threads are interpreting
+ * arguments. Adding flags publishes a new immutable snapshot of the flags, an interpretation that is in progress
+ * keeps using the snapshot it started with and is never blocked by flags being added. Once all flags are added,
+ * {@link #compile()} can be used to get an interpreter that can no longer be changed.
  */
 public class ParameterInterpreter {
 
-    private final HashMap<String, Flag> flags;
-    private final LinkedList<Flag> required;
+    /**
+     * The current snapshot of the registered flags. It is replaced whenever flags are added, which is synchronized on
+     * this interpreter, while interpretations read it once without any locking and use that snapshot throughout.
+     */
+    private volatile FlagIndex index;
+
+    /**
+     * Whether or not this interpreter was created by {@link #compile()} and can no longer be changed
+     */
+    private final boolean compiled;
 
-    private final String prefix;
+    /**
+     * Whether or not arguments starting with '@' are expanded into the contents of the file they name
+     */
+    private volatile boolean responseFiles;
+
+    /**
+     * The cache of interpretations, or null if interpretations are not cached
+     */
+    private volatile InterpretationCache cache;
+
+    /**
+     * The listener that is told about every step of every interpretation, or null if there is none
+     */
+    private volatile InterpretationListener listener;
 
     /**
      * Constructs a new ParameterInterpreter that will check and parse the supplied flags. The prefix parameter decides
@@ -34,14 +80,7 @@ public class ParameterInterpreter {
      * arguments (required arguments).
      */
     public ParameterInterpreter(String prefix, Flag... flags) {
-        this.prefix = prefix;
-
-        this.flags = new HashMap<>();
-        this.required = new LinkedList<>();
-
-        for (Flag flag : flags) {
-            addFlag(flag);
-        }
+        this(new FlagIndex(prefix, flags.clone()), false);
     }
 
     /**
@@ -51,21 +90,301 @@ public class ParameterInterpreter {
         this("-", flags);
     }
 
+    private ParameterInterpreter(FlagIndex index, boolean compiled) {
+        this.index = index;
+        this.compiled = compiled;
+    }
+
     /**
      * Adds a flag to this interpreter. If if the flag's short-hand name or name already exists in this interpreter
-     * then they will be overridden. If the overridden flag is a required one then it will never be able to meet its
-     * requirements and will always fail when interpreting arguments.
+     * then they will be overridden. A flag whose name is overridden can still be given by its short-hand name if that
+     * is not overridden as well, and its value is then retrieved by the name like the value of the new flag. If the
+     * overridden flag is a required one then its requirement is met whenever a flag with its name is present.
+     *
+     * @throws UnsupportedOperationException if this interpreter was created by {@link #compile()}
      */
     public void addFlag(Flag flag) {
-        this.flags.put(flag.getName(), flag);
-        this.flags.put(flag.getFlag(), flag);
-        if (flag.isRequired()) {
-            required.addLast(flag);
+        addFlags(flag);
+    }
+
+    /**
+     * Adds several flags to this interpreter at once, see {@link #addFlag(Flag)}. The flags are published together,
+     * an interpretation sees either all or none of them.
+     *
+     * @throws UnsupportedOperationException if this interpreter was created by {@link #compile()}
+     */
+    public void addFlags(Flag... flags) {
+        if (compiled) {
+            throw new UnsupportedOperationException("Flags cannot be added to a compiled interpreter!");
+        }
+
+        synchronized (this) {
+            index = index.with(flags);
         }
     }
 
+    /**
+     * Adds a constraint to this interpreter, see {@link #addConstraints(Constraint...)}.
+     *
+     * @throws IllegalArgumentException      if the constraint refers to a flag that this interpreter does not have
+     * @throws UnsupportedOperationException if this interpreter was created by {@link #compile()}
+     */
+    public void addConstraint(Constraint constraint) {
+        addConstraints(constraint);
+    }
+
+    /**
+     * Adds constraints about which flags may be present together to this interpreter, such as a flag that requires
+     * another flag or a group of flags of which exactly one must be present. Once the arguments are interpreted, and
+     * the required flags are found to be present, every constraint is checked and all violated constraints are
+     * reported together by a {@link ConstraintViolationException}.
+     * <p>
+     * The flags of a constraint are resolved by name when the constraint is added, flags added later with the same
+     * name take their place. The constraints are compiled into bitmasks that are checked against the flags present in
+     * an interpretation without looking anything up.
+     *
+     * @throws IllegalArgumentException      if a constraint refers to a flag that this interpreter does not have
+     * @throws UnsupportedOperationException if this interpreter was created by {@link #compile()}
+     */
+    public void addConstraints(Constraint... constraints) {
+        if (compiled) {
+            throw new UnsupportedOperationException("Constraints cannot be added to a compiled interpreter!");
+        }
+
+        synchronized (this) {
+            index = index.withConstraints(constraints);
+        }
+    }
+
+    /**
+     * Adds a positional to this interpreter, see {@link #addPositionals(Positional...)}.
+     *
+     * @throws IllegalArgumentException      if this interpreter already has a positional with the same name, or if
+     *                                       both the positional and one that was added before are variadic
+     * @throws UnsupportedOperationException if this interpreter was created by {@link #compile()}
+     */
+    public void addPositional(Positional positional) {
+        addPositionals(positional);
+    }
+
+    /**
+     * Adds positionals to this interpreter, after the positionals it already has. The unnamed arguments that are not
+     * given to required flags are shared by the positionals in order: every positional gets the number of arguments it
+     * needs, and the remaining arguments go to the first positionals that can take more. For example with a variadic
+     * positional SRC followed by a required positional DEST, the last argument is DEST and all others are SRC.
+     * <p>
+     * If there are fewer arguments than the positionals need then a {@link MissingArgumentException} is thrown, and if
+     * there are more than they can take a {@link ParameterException} is thrown. Arguments that are consecutive
+     * elements of the array given to {@link #interpret(String[])}, such as all arguments after "--", are kept as a
+     * view of the array and never copied.
+     *
+     * @throws IllegalArgumentException      if two positionals have the same name or more than one is variadic
+     * @throws UnsupportedOperationException if this interpreter was created by {@link #compile()}
+     */
+    public void addPositionals(Positional... positionals) {
+        if (compiled) {
+            throw new UnsupportedOperationException("Positionals cannot be added to a compiled interpreter!");
+        }
+
+        synchronized (this) {
+            index = index.withPositionals(positionals);
+        }
+    }
+
+    /**
+     * Returns the positionals of this interpreter in the order of their arguments
+     */
+    public List<Positional> getPositionals() {
+        return Collections.unmodifiableList(Arrays.asList(index.positionals));
+    }
+
+    /**
+     * Adds a source of arguments for flags that are missing from the command line, see
+     * {@link #addSources(ParameterSource...)}.
+     *
+     * @throws UnsupportedOperationException if this interpreter was created by {@link #compile()}
+     */
+    public void addSource(ParameterSource source) {
+        addSources(source);
+    }
+
+    /**
+     * Adds sources of arguments for flags that are missing from the command line, such as
+     * {@link ParameterSource#environment(String)} and {@link ParameterSource#properties(java.nio.file.Path)}. The
+     * command line always takes precedence, followed by the sources in the order they were added.
+     * <p>
+     * Sources are resolved lazily once the command line is interpreted: a source is only asked for the flags that are
+     * still missing, and a flag that a source has is not looked up in the sources after it. The arguments are parsed by
+     * the flags as if they were given on the command line, before required flags and constraints are checked. Flags
+     * that are not {@link Flag#isPure() pure}, such as {@link RunnableFlag}s, are never looked up so that a source
+     * cannot cause their side effects. Interpretations for which a source was asked are never cached, since the
+     * sources may change, even if no source had an argument.
+     *
+     * @throws UnsupportedOperationException if this interpreter was created by {@link #compile()}
+     */
+    public void addSources(ParameterSource... sources) {
+        if (compiled) {
+            throw new UnsupportedOperationException("Sources cannot be added to a compiled interpreter!");
+        }
+
+        synchronized (this) {
+            index = index.withSources(sources);
+        }
+    }
+
+    /**
+     * Returns the sources of this interpreter in order of precedence
+     */
+    public List<ParameterSource> getSources() {
+        return Collections.unmodifiableList(Arrays.asList(index.sources));
+    }
+
+    /**
+     * Returns the constraints of this interpreter in the order they were added
+     */
+    public List<Constraint> getConstraints() {
+        return Collections.unmodifiableList(Arrays.asList(index.constraints));
+    }
+
+    /**
+     * Sets whether or not arguments starting with '@' are response files, which are disabled by default. When enabled,
+     * an argument such as {@code @args.txt} is replaced by the tokens of the file {@code args.txt}, which is useful
+     * when there are too many arguments to pass on the command line. Response files within response files are not
+     * expanded, and an argument starting with "@@" is passed on with the first '@' removed.
+     * <p>
+     * The file is read as UTF-8 in chunks and its tokens are interpreted as they are read, so a large file never has
+     * to be held in memory. Tokens are separated by whitespace, can be quoted with single quotes (literal) or double
+     * quotes (where a backslash escapes a double quote or a backslash), and outside of quotes a backslash escapes any
+     * character.
+     *
+     * @throws UnsupportedOperationException if this interpreter was created by {@link #compile()}
+     */
+    public void setResponseFiles(boolean enabled) {
+        if (compiled) {
+            throw new UnsupportedOperationException("A compiled interpreter cannot be changed!");
+        }
+
+        this.responseFiles = enabled;
+    }
+
+    /**
+     * Sets the maximum number of interpretations that are cached, which is 0 (no caching) by default. When enabled,
+     * {@link #interpret(String[])} and {@link #interpretAll(Stream)} return the same interpretation every time they
+     * are given equal arguments, without interpreting the arguments again. When the cache is full the least recently
+     * used interpretation is evicted.
+     * <p>
+     * Only interpretations where every parsed flag is pure are cached, see {@link Flag#isPure()}. Flags with side
+     * effects such as {@link RunnableFlag}, {@link ConsumerFlag} and {@link SupplierFlag} are not pure, arguments
+     * with such flags are interpreted every time. Neither are arguments with response files. Adding flags to the
+     * interpreter makes every cached interpretation stale. Setting the size replaces the cache with an empty one.
+     *
+     * @throws IllegalArgumentException      if the maximum size is negative
+     * @throws UnsupportedOperationException if this interpreter was created by {@link #compile()}
+     */
+    public void setCache(int maximumSize) {
+        if (compiled) {
+            throw new UnsupportedOperationException("A compiled interpreter cannot be changed!");
+        }
+
+        if (maximumSize < 0) {
+            throw new IllegalArgumentException("The maximum size of the cache cannot be negative!");
+        }
+
+        this.cache = (maximumSize == 0) ? null : new InterpretationCache(maximumSize);
+    }
+
+    /**
+     * Returns the hits, misses and evictions of the interpretation cache, or null if interpretations are not cached
+     */
+    public CacheStatistics getCacheStatistics() {
+        InterpretationCache cache = this.cache;
+        return (cache == null) ? null : cache.statistics();
+    }
+
+    /**
+     * Returns the flags of this interpreter in the order they were added
+     */
     public Collection<Flag> getFlags() {
-        return flags.values();
+        return Collections.unmodifiableList(Arrays.asList(index.flags));
+    }
+
+    /**
+     * Sets the listener that is told about every step of the interpretations made by this interpreter, such as
+     * {@link InterpretationMetrics}, or removes the listener if null. Interpretations without a listener do not pay
+     * anything for it besides a null check per step.
+     *
+     * @throws UnsupportedOperationException if this interpreter was created by {@link #compile()}
+     */
+    public void setListener(InterpretationListener listener) {
+        if (compiled) {
+            throw new UnsupportedOperationException("A compiled interpreter cannot be changed!");
+        }
+
+        this.listener = listener;
+    }
+
+    /**
+     * Returns the listener of this interpreter, or null if it has none
+     */
+    public InterpretationListener getListener() {
+        return listener;
+    }
+
+    /**
+     * Returns a handle to the flag with the given name. The handle can be used to retrieve the flag's parsed value from
+     * interpretations made by this interpreter without looking up the flag by its name, see
+     * {@link ParameterInterpretation#get(FlagHandle)}.
+     *
+     * @throws IllegalArgumentException if this interpreter has no flag with the given name
+     */
+    public <T> FlagHandle<T> handle(String name) {
+        int ordinal = index.ordinal(name);
+        if (ordinal < 0) {
+            throw new IllegalArgumentException("No flag named (" + name + ")!");
+        }
+
+        return new FlagHandle<>(ordinal, index.flags[ordinal].getName());
+    }
+
+    /**
+     * Returns an immutable interpreter with the flags that are currently registered in this interpreter. Flags added
+     * to this interpreter afterwards are not seen by the compiled interpreter, and adding flags to the compiled
+     * interpreter throws an {@link UnsupportedOperationException}.
+     * <p>
+     * Since a compiled interpreter never changes, all threads that share it interpret arguments with the same flags.
+     */
+    public ParameterInterpreter compile() {
+        if (compiled) {
+            return this;
+        }
+
+        return copy(index, true);
+    }
+
+    /**
+     * Used by {@link CommandRouter} to get an interpreter with the given flags followed by the flags of this
+     * interpreter, so that the flags of this interpreter override the given flags. The returned interpreter has the
+     * same settings as this interpreter.
+     */
+    ParameterInterpreter inherit(Flag[] flags) {
+        FlagIndex index = this.index;
+        Flag[] joined = Arrays.copyOf(flags, flags.length + index.flags.length);
+        System.arraycopy(index.flags, 0, joined, flags.length, index.flags.length);
+
+        return copy(new FlagIndex(index.prefix, joined, index.constraints, index.positionals, index.sources), compiled);
+    }
+
+    /**
+     * Returns a new interpreter with the given flags and the settings of this interpreter, the cache is not shared
+     */
+    private ParameterInterpreter copy(FlagIndex index, boolean compiled) {
+        ParameterInterpreter interpreter = new ParameterInterpreter(index, compiled);
+        interpreter.responseFiles = responseFiles;
+        interpreter.listener = listener;
+        if (cache != null) {
+            interpreter.cache = new InterpretationCache(cache.getMaximumSize());
+        }
+        return interpreter;
     }
 
     /**
@@ -76,55 +395,246 @@ public class ParameterInterpreter {
      * @throws MissingFlagException         if a required flag is not present
      * @throws MissingArgumentException     if a flag that requires an argument did not have a argument
      * @throws ExceptionCaughtException     if a exception was thrown when parsing a flag
+     * @throws ConstraintViolationException if the present flags violate any constraints, see
+     *                                      {@link #addConstraints(Constraint...)}
      */
     public ParameterInterpretation interpret(String[] args) {
-        ParameterInterpretation interpretation = new ParameterInterpretation();
-        interpretation.prepareRequired(required.toArray(new Flag[0]));
-
-        ListIterator<String> iterator = Arrays.asList(args).listIterator();
-
-        while (iterator.hasNext()) {
-            String arg = iterator.next();
-            if (arg.startsWith(prefix + prefix)) {
-                arg = arg.substring(prefix.length() * 2);
-                interpretFlag(interpretation, iterator, arg);
-            } else if (arg.startsWith(prefix)) {
-                arg = arg.substring(prefix.length());
-                interpretFlag(interpretation, iterator, arg);
-            } else if (!interpretation.required.isEmpty()) { //Ignore any superfluous unnamed parameters
-                arg = interpretation.popRequired().getName();
-                iterator.previous();
-                interpretFlag(interpretation, iterator, arg);
-            }
+        return interpret(index, responseFiles, cache, listener, args);
+    }
+
+    /**
+     * Interprets an array of parameters into an existing interpretation, see {@link #interpret(String[])}. The
+     * interpretation is cleared and filled again in place, which lets a loop that interprets arguments over and over
+     * reuse a single interpretation. Apart from the values of flags that parse their arguments into objects, such as a
+     * {@link FunctionFlag}, interpreting into an interpretation allocates nothing once the loop has warmed up.
+     * <p>
+     * The interpretation must have been returned by this method, or by {@link #interpret(String[])} without caching,
+     * since flags were last added to this interpreter. If it is null then a new interpretation is returned, which
+     * can be reused by the next call. Interpretations are never taken from or put in the cache of this interpreter in
+     * this mode. If an exception is thrown then the interpretation is left partially filled, it can still be reused.
+     *
+     * @throws IllegalArgumentException if the interpretation was made with other flags, or is cached or a snapshot of
+     *                                  an {@link IncrementalInterpreter}
+     * @see #interpret(String[])
+     */
+    public ParameterInterpretation interpret(String[] args, ParameterInterpretation reuse) {
+        FlagIndex index = this.index;
+        if (reuse == null) {
+            reuse = new ParameterInterpretation(index);
+        } else if (reuse.index != index) {
+            throw new IllegalArgumentException("The interpretation was not made with the flags of this interpreter!");
         }
 
-        if (!interpretation.required.isEmpty()) {
-            throw new MissingFlagException(interpretation.required);
+        TokenInterpreter interpreter = TokenInterpreter.refilling(reuse, responseFiles, listener);
+        for (int i = 0; i < args.length; i++) {
+            interpreter.accept(args, i);
         }
 
-        return interpretation;
+        return interpreter.finish();
+    }
+
+    /**
+     * Returns the completions of the last argument of a partial command line, such as the word being completed when
+     * tab is pressed in a shell. If the last argument is the argument of a {@link CollectionFlag} or {@link MapFlag},
+     * given as the next argument or after '=', then the completions are the options of the flag that start with it.
+     * Otherwise the completions are the flags, with the prefix once before their short-hand names and twice before
+     * their names, that start with the last argument. The completions are in alphabetical order.
+     * <p>
+     * No arguments are parsed, the arguments before the last one are only used to find the flag that the last
+     * argument belongs to. The completions are found in prefix tries that are built the first time they are needed,
+     * once for the flags of this interpreter and once for the options of every flag.
+     */
+    public List<String> complete(String[] args) {
+        return Completer.complete(index, args);
     }
 
-    private void interpretFlag(ParameterInterpretation interpretation, Iterator<String> iterator, String arg) {
-        if (flags.containsKey(arg)) {
-            Flag flag = flags.get(arg);
+    /**
+     * Returns an interpreter that is given tokens one at a time and keeps its state between them, see
+     * {@link IncrementalInterpreter}. It uses the flags that are registered when this method is called.
+     */
+    public IncrementalInterpreter incremental() {
+        return new IncrementalInterpreter(new TokenInterpreter(index, responseFiles, listener));
+    }
+
+    /**
+     * Interprets an array of parameters like {@link #interpret(String[])}, but collects all problems as diagnostics
+     * instead of throwing an exception for the first one. A flag whose argument has a problem is left out of the
+     * interpretation and the interpretation continues with the next argument. The problems are reported as
+     * {@link Diagnostic}s, which have no stack traces and only build their messages when asked, so this is the cheaper
+     * way to validate arguments of which many are expected to be invalid.
+     * <p>
+     * Interpretations are never taken from or put in the cache of this interpreter in this mode.
+     */
+    public CollectedInterpretation interpretCollecting(String[] args) {
+        TokenInterpreter interpreter = new TokenInterpreter(index, responseFiles, listener);
+        interpreter.collectDiagnostics();
+        for (int i = 0; i < args.length; i++) {
             try {
-                if (flag.expectsArgument()) {
-                    if (!iterator.hasNext()) {
-                        throw new MissingArgumentException("Missing argument for: " + prefix + arg);
-                    }
-
-                    interpretation.addFlag(flag, flag.parseArgument(iterator.next()));
-                } else {
-                    interpretation.addFlag(flag, flag.parseArgument(null));
-                }
+                interpreter.accept(args, i);
             } catch (ParameterException e) {
-                throw e; //We dont want to wrap exceptions thrown by ourselves
-            } catch (Exception e) {
-                String msg = "Exception thrown when parsing argument for flag (" + flag.getName() + ")!";
-                throw new ExceptionCaughtException(msg, e);
+                interpreter.collect(e);
             }
         }
+
+        return new CollectedInterpretation(interpreter.finish(), interpreter.diagnostics());
+    }
+
+    /**
+     * Interprets an array of parameters asynchronously, see {@link #interpretAsync(String[], Executor)}. The flags are
+     * parsed on virtual threads if the runtime supports them, otherwise on the common fork-join pool.
+     */
+    public CompletableFuture<ParameterInterpretation> interpretAsync(String[] args) {
+        return interpretAsync(args, DeferredParse.defaultExecutor());
+    }
+
+    /**
+     * Interprets an array of parameters, parsing the arguments of {@link FunctionFlag}s and {@link SupplierFlag}s
+     * concurrently on the given executor. This is useful when several of these flags have parsers that take a long
+     * time, such as parsers that load files or resolve hosts.
+     * <p>
+     * The arguments are matched to flags on the calling thread, and the arguments of all other flags are parsed there
+     * as well, which means that {@link RunnableFlag}s and {@link ConsumerFlag}s still run in the order they occur.
+     * The returned future completes once every concurrent parser has finished.
+     * <p>
+     * The future fails with the same exceptions that {@link #interpret(String[])} throws. If several concurrent
+     * parsers fail then the exception of the flag that occurs first is used.
+     */
+    public CompletableFuture<ParameterInterpretation> interpretAsync(String[] args, Executor executor) {
+        TokenInterpreter interpreter = new TokenInterpreter(index, responseFiles, listener);
+        interpreter.deferConcurrentParses();
+
+        ParameterInterpretation interpretation;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                interpreter.accept(args, i);
+            }
+            interpretation = interpreter.finish();
+        } catch (ParameterException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        return DeferredParse.complete(interpretation, interpreter.deferred(), executor);
+    }
+
+    /**
+     * Interprets every set of arguments of a stream, see {@link #interpret(String[])}. Exceptions do not stop the
+     * stream, instead every set of arguments results in an {@link InterpretationResult} that holds either the
+     * interpretation or the exception.
+     * <p>
+     * The results are computed lazily as the returned stream is consumed. If the given stream is parallel then the
+     * arguments are interpreted in parallel on the fork-join pool, and unless the stream is unordered the results
+     * keep the order of the arguments. All arguments are interpreted with the flags that were registered when this
+     * method was called.
+     */
+    public Stream<InterpretationResult> interpretAll(Stream<String[]> args) {
+        FlagIndex index = this.index;
+        boolean responseFiles = this.responseFiles;
+        InterpretationCache cache = this.cache;
+        InterpretationListener listener = this.listener;
+        return args.map(arg -> interpretResult(index, responseFiles, cache, listener, arg));
+    }
+
+    /**
+     * Interprets every set of arguments of an iterable, see {@link #interpretAll(Stream)}.
+     *
+     * @param parallel whether or not the arguments are interpreted in parallel on the fork-join pool
+     * @param ordered  whether or not the results have to keep the order of the arguments
+     */
+    public Stream<InterpretationResult> interpretAll(Iterable<String[]> args, boolean parallel, boolean ordered) {
+        Stream<String[]> stream = StreamSupport.stream(args.spliterator(), parallel);
+        return interpretAll(ordered ? stream : stream.unordered());
+    }
+
+    private static InterpretationResult interpretResult(FlagIndex index, boolean responseFiles, InterpretationCache cache, InterpretationListener listener, String[] args) {
+        try {
+            return new InterpretationResult(args, interpret(index, responseFiles, cache, listener, args), null);
+        } catch (ParameterException e) {
+            return new InterpretationResult(args, null, e);
+        }
+    }
+
+    private static ParameterInterpretation interpret(FlagIndex index, boolean responseFiles, InterpretationCache cache, InterpretationListener listener, String[] args) {
+        if (cache != null) {
+            ParameterInterpretation interpretation = cache.get(index, args);
+            if (interpretation != null) {
+                return interpretation;
+            }
+        }
+
+        TokenInterpreter interpreter = new TokenInterpreter(index, responseFiles, listener);
+        for (int i = 0; i < args.length; i++) {
+            interpreter.accept(args, i);
+        }
+
+        ParameterInterpretation interpretation = interpreter.finish();
+        if (cache != null && interpreter.isPure()) {
+            cache.put(args, interpretation);
+        }
+
+        return interpretation;
+    }
+
+    /**
+     * Interprets an array of tokens that are not necessarily strings, see {@link #interpret(String[])}. The tokens are
+     * matched against the flags in place, and are only copied into strings when a flag's parser requires it.
+     */
+    public ParameterInterpretation interpret(CharSequence[] args) {
+        TokenInterpreter interpreter = new TokenInterpreter(index, responseFiles, listener);
+        for (CharSequence arg : args) {
+            interpreter.accept(arg);
+        }
+
+        return interpreter.finish();
+    }
+
+    /**
+     * Interprets a whole command line, see {@link #interpret(String[])}. The line is split into tokens the way a shell
+     * would: tokens are separated by whitespace, characters between single quotes are taken literally, between
+     * double quotes a backslash only escapes a double quote or another backslash, and outside of quotes a backslash
+     * escapes any character. Quoted and unquoted parts that are not separated by whitespace belong to the same token.
+     * <p>
+     * The line is split in a single pass and every token is interpreted as soon as it is complete. Tokens without
+     * quotes or backslashes are matched in place without being copied.
+     *
+     * @throws ParameterException if a quote is not closed or the line ends with an escaping backslash
+     */
+    public ParameterInterpretation interpret(String line) {
+        TokenInterpreter interpreter = new TokenInterpreter(index, responseFiles, listener);
+        new Tokenizer(interpreter, true).tokenize(line);
+
+        return interpreter.finish();
+    }
+
+    /**
+     * Interprets tokens that are regions of a single character sequence, such as a {@link java.nio.CharBuffer}
+     * received from the network, see {@link #interpret(String[])}. Token {@code i} consists of the characters
+     * between {@code starts[i]} (inclusive) and {@code ends[i]} (exclusive).
+     * <p>
+     * The tokens are matched against the flags in place, and are only copied into strings when a flag's parser
+     * requires it. {@link IntFlag}, {@link LongFlag}, {@link BooleanFlag} and flags with a
+     * {@link FunctionFlag.SequenceFunction} parse their arguments without any copying.
+     *
+     * @throws IndexOutOfBoundsException if a token is outside of the source or the arrays differ in length
+     */
+    public ParameterInterpretation interpret(CharSequence source, int[] starts, int[] ends) {
+        if (starts.length != ends.length) {
+            throw new IndexOutOfBoundsException("Got " + starts.length + " token starts but " + ends.length + " ends");
+        }
+
+        TokenView view = new TokenView(source);
+        TokenInterpreter interpreter = new TokenInterpreter(index, responseFiles, listener);
+        for (int i = 0; i < starts.length; i++) {
+            interpreter.accept(view.set(starts[i], ends[i]));
+        }
+
+        return interpreter.finish();
+    }
+
+    /**
+     * Interprets tokens that are regions of a character array, see {@link #interpret(CharSequence, int[], int[])}.
+     */
+    public ParameterInterpretation interpret(char[] source, int[] starts, int[] ends) {
+        return interpret(CharBuffer.wrap(source), starts, ends);
     }
 
 }
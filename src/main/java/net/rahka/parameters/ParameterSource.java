@@ -0,0 +1,68 @@
+package net.rahka.parameters;
+
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * A source of arguments for flags besides the command line, such as environment variables or a properties file, added
+ * to a {@link ParameterInterpreter} with {@link ParameterInterpreter#addSources(ParameterSource...)}. A source is only
+ * asked for the flags that are missing from the command line and from every source with a higher precedence.
+ * <p>
+ * The argument a source returns is parsed by the flag the same way as an argument on the command line. For a flag that
+ * does not expect an argument, any argument other than "false" makes the flag present.
+ */
+@FunctionalInterface
+public interface ParameterSource {
+
+    /**
+     * Returns the argument of the flag, or null if this source has none. Called at most once per flag and
+     * interpretation, and only for flags that are not present yet.
+     */
+    String lookup(Flag flag);
+
+    /**
+     * Returns a source of environment variables, see {@link #environment(String, Map)}
+     */
+    static ParameterSource environment(String prefix) {
+        return environment(prefix, System.getenv());
+    }
+
+    /**
+     * Returns a source of the given environment variables. The variable of a flag is its name in upper case after the
+     * prefix, with every character that is not a letter or digit replaced by '_', so the flag "thread-count" with the
+     * prefix "APP_" is looked up as "APP_THREAD_COUNT".
+     */
+    static ParameterSource environment(String prefix, Map<String, String> variables) {
+        return flag -> {
+            String name = flag.getName();
+            StringBuilder key = new StringBuilder(prefix.length() + name.length()).append(prefix);
+            for (int i = 0; i < name.length(); i++) {
+                char c = name.charAt(i);
+                key.append(Character.isLetterOrDigit(c) ? c : '_');
+            }
+
+            return variables.get(key.toString().toUpperCase(Locale.ROOT));
+        };
+    }
+
+    /**
+     * Returns a source of the given values, where the value of a flag is the value of its name
+     */
+    static ParameterSource of(Map<String, String> values) {
+        return flag -> values.get(flag.getName());
+    }
+
+    /**
+     * Returns a source of a properties file, where the argument of a flag is the property of its name. The file is
+     * read the first time a flag is looked up and kept from then on, so it is read at most once no matter how many
+     * interpretations use the source, and never if the command line has every flag.
+     * <p>
+     * If the file cannot be read then the lookup throws an {@link ExceptionCaughtException}, and the file is read
+     * again by the next lookup.
+     */
+    static ParameterSource properties(Path file) {
+        return new PropertiesFileSource(file);
+    }
+
+}
@@ -0,0 +1,26 @@
+package net.rahka.parameters;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a class or record whose {@link Parameter} annotated fields are bound from an interpretation. The annotation
+ * processor of the parameters-processor artifact generates a class named after the annotated type followed by
+ * {@code Parameters}, which has a method that creates a {@link ParameterInterpreter} with a flag for every annotated
+ * field, and methods that bind an interpretation to an instance of the type. The generated code uses
+ * {@link FlagHandle}s and plain field accesses, so binding uses neither reflection nor lookups by name.
+ */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+public @interface Parameters {
+
+    /**
+     * The prefix of the generated interpreter, see {@link ParameterInterpreter#ParameterInterpreter(String, Flag...)}
+     */
+    String prefix() default "-";
+
+}
@@ -0,0 +1,93 @@
+package net.rahka.parameters;
+
+/**
+ * A positional parameter, which is given by the position of its arguments instead of a flag, added to a
+ * {@link ParameterInterpreter} with {@link ParameterInterpreter#addPositionals(Positional...)}. A positional takes
+ * between a minimum and a maximum number of arguments, its arity. It can be required, optional, have a fixed arity
+ * greater than one or be variadic and take any number of arguments, as {@code SRC...} in {@code cmd SRC... DEST}.
+ * <p>
+ * The values of positionals are the arguments themselves, see {@link ParameterInterpretation#getPositional(String)}.
+ */
+public final class Positional {
+
+    private final String name;
+    private final String description;
+    private final int minimum;
+    private final int maximum;
+
+    private Positional(String name, String description, int minimum, int maximum) {
+        this.name = name;
+        this.description = description;
+        this.minimum = minimum;
+        this.maximum = maximum;
+    }
+
+    /**
+     * Returns a positional that takes exactly one argument
+     */
+    public static Positional required(String name, String description) {
+        return new Positional(name, description, 1, 1);
+    }
+
+    /**
+     * Returns a positional that takes at most one argument, it only gets an argument if the positionals before and
+     * after it have all the arguments they need
+     */
+    public static Positional optional(String name, String description) {
+        return new Positional(name, description, 0, 1);
+    }
+
+    /**
+     * Returns a positional that takes exactly the given number of arguments
+     *
+     * @throws IllegalArgumentException if the arity is not positive
+     */
+    public static Positional of(String name, String description, int arity) {
+        if (arity < 1) {
+            throw new IllegalArgumentException("The arity of a positional must be positive!");
+        }
+
+        return new Positional(name, description, arity, arity);
+    }
+
+    /**
+     * Returns a positional that takes at least the given number of arguments and every argument that the other
+     * positionals do not need
+     *
+     * @throws IllegalArgumentException if the minimum is negative
+     */
+    public static Positional variadic(String name, String description, int minimum) {
+        if (minimum < 0) {
+            throw new IllegalArgumentException("The minimum arity of a positional cannot be negative!");
+        }
+
+        return new Positional(name, description, minimum, -1);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * Returns the number of arguments this positional needs
+     */
+    public int getMinimum() {
+        return minimum;
+    }
+
+    /**
+     * Returns the number of arguments this positional can take at most, or -1 if it is variadic
+     */
+    public int getMaximum() {
+        return maximum;
+    }
+
+    public boolean isVariadic() {
+        return maximum < 0;
+    }
+
+}
@@ -0,0 +1,133 @@
+package net.rahka.parameters;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * The arguments of the positionals of an interpretation in the order they were given. As long as the arguments are
+ * consecutive elements of the array passed to {@link ParameterInterpreter#interpret(String[])}, the list is a view of
+ * that range of the array and nothing is copied, no matter how many arguments there are. Arguments from elsewhere, or
+ * ones that are separated by flags, make the list copy the references to its arguments into an array of its own.
+ * Copies of the list share that array, see {@link Extent}, so copying the list for a snapshot takes constant time.
+ */
+final class PositionalArguments extends AbstractList<String> implements RandomAccess {
+
+    private static final String[] EMPTY = new String[0];
+
+    /**
+     * The array that the arguments are a range of, unless they are copied
+     */
+    private String[] source;
+    private int from;
+    private int to;
+
+    /**
+     * The copied arguments, only used if {@link #copying} is set
+     */
+    private String[] copied = EMPTY;
+    private int size;
+    private Extent extent = new Extent();
+    private boolean copying;
+
+    PositionalArguments() {
+    }
+
+    private PositionalArguments(PositionalArguments arguments) {
+        this.source = arguments.source;
+        this.from = arguments.from;
+        this.to = arguments.to;
+        this.copied = arguments.copied;
+        this.size = arguments.size;
+        this.extent = arguments.extent;
+        this.copying = arguments.copying;
+        extent.shared = true;
+    }
+
+    /**
+     * Adds an argument, which is the element at the position of the array if the array is not null
+     */
+    void add(CharSequence argument, String[] array, int position) {
+        if (!copying) {
+            if (array != null && array[position] == argument && (from == to || (array == source && position == to))) {
+                if (from == to) {
+                    source = array;
+                    from = position;
+                }
+                to = position + 1;
+                return;
+            }
+
+            startCopying();
+        }
+
+        append(argument.toString());
+    }
+
+    private void startCopying() {
+        copying = true;
+        for (int i = from; i < to; i++) {
+            append(source[i]);
+        }
+    }
+
+    /**
+     * Appends a copied argument, copying the array first if it is full or if another list sharing it has appended
+     * after the end of this list
+     */
+    private void append(String argument) {
+        if (size == copied.length || size != extent.used) {
+            copied = Arrays.copyOf(copied, Math.max(size * 2, 8));
+            extent = new Extent();
+        }
+        copied[size++] = argument;
+        extent.used = size;
+    }
+
+    /**
+     * Returns whether or not the arguments are a view of an array, in which case changes to the array change them
+     */
+    boolean isView() {
+        return !copying && from != to;
+    }
+
+    /**
+     * Removes all arguments, keeping the storage of copied arguments unless a copy of this list shares it
+     */
+    void reset() {
+        source = null;
+        from = 0;
+        to = 0;
+        if (copying) {
+            if (extent.shared) {
+                copied = EMPTY;
+                extent = new Extent();
+            } else {
+                Arrays.fill(copied, 0, size, null);
+                extent.used = 0;
+            }
+            size = 0;
+            copying = false;
+        }
+    }
+
+    PositionalArguments copy() {
+        return new PositionalArguments(this);
+    }
+
+    @Override
+    public String get(int index) {
+        int size = size();
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+        }
+
+        return copying ? copied[index] : source[from + index];
+    }
+
+    @Override
+    public int size() {
+        return copying ? size : to - from;
+    }
+
+}
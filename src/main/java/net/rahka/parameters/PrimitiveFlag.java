@@ -0,0 +1,58 @@
+package net.rahka.parameters;
+
+/**
+ * The base class of flags that parse their argument into a primitive value. The value is stored in the
+ * interpretation as the 64 bits of a long, which lets {@link ParameterInterpretation#getInt(String, int)} and the
+ * other primitive accessors retrieve it without ever boxing it.
+ * <p>
+ * The conversions throw a {@link ClassCastException} in the same cases where unboxing a value of the flag's type into
+ * the requested type would fail.
+ */
+abstract class PrimitiveFlag extends Flag {
+
+    PrimitiveFlag(String name, String flag, String description, boolean required) {
+        super(name, flag, description, required);
+    }
+
+    @Override
+    protected boolean expectsArgument() {
+        return true;
+    }
+
+    @Override
+    protected Object parseArgument(String arg) throws Exception {
+        return box(parseBits(arg));
+    }
+
+    @Override
+    void parseInto(ParameterInterpretation interpretation, int ordinal, CharSequence arg) throws Exception {
+        interpretation.addPrimitive(this, ordinal, parseBits(arg));
+    }
+
+    /**
+     * Parses the argument directly from its characters into the bits that are stored in the interpretation
+     */
+    abstract long parseBits(CharSequence arg) throws Exception;
+
+    /**
+     * Returns the boxed value of the stored bits, used by {@link ParameterInterpretation#get(String)}
+     */
+    abstract Object box(long bits);
+
+    int toInt(long bits) {
+        throw new ClassCastException(getClass().getSimpleName() + " (" + getName() + ") is not an int");
+    }
+
+    long toLong(long bits) {
+        throw new ClassCastException(getClass().getSimpleName() + " (" + getName() + ") is not numeric");
+    }
+
+    double toDouble(long bits) {
+        throw new ClassCastException(getClass().getSimpleName() + " (" + getName() + ") is not numeric");
+    }
+
+    boolean toBoolean(long bits) {
+        throw new ClassCastException(getClass().getSimpleName() + " (" + getName() + ") is not a boolean");
+    }
+
+}
@@ -0,0 +1,57 @@
+package net.rahka.parameters;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+/**
+ * A source of a properties file that is read when first needed, see {@link ParameterSource#properties(Path)}
+ */
+final class PropertiesFileSource implements ParameterSource {
+
+    private final Path file;
+
+    /**
+     * The properties of the file, or null if the file has not been read yet
+     */
+    private volatile Properties properties;
+
+    PropertiesFileSource(Path file) {
+        this.file = file;
+    }
+
+    @Override
+    public String lookup(Flag flag) {
+        return properties().getProperty(flag.getName());
+    }
+
+    private Properties properties() {
+        Properties properties = this.properties;
+        if (properties == null) {
+            synchronized (this) {
+                properties = this.properties;
+                if (properties == null) {
+                    properties = read();
+                    this.properties = properties;
+                }
+            }
+        }
+
+        return properties;
+    }
+
+    private Properties read() {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        } catch (IOException | RuntimeException e) {
+            throw new ExceptionCaughtException("Exception thrown when reading properties file (" + file + ")!", e);
+        }
+
+        return properties;
+    }
+
+}
@@ -0,0 +1,95 @@
+package net.rahka.parameters;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads the tokens of a response file, see {@link ParameterInterpreter#setResponseFiles(boolean)}. The file is
+ * decoded as UTF-8 in fixed size chunks and the chunks are split into tokens by a {@link Tokenizer}, so the memory
+ * used does not depend on the size of the file.
+ */
+final class ResponseFile {
+
+    /**
+     * The number of bytes read from the file at a time
+     */
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private ResponseFile() {
+    }
+
+    /**
+     * Reads the file at the given path and passes its tokens on to the interpreter
+     *
+     * @throws ExceptionCaughtException if the file could not be read
+     */
+    static void read(String path, TokenInterpreter interpreter) {
+        try {
+            read(Paths.get(path), interpreter);
+        } catch (IOException | RuntimeException e) {
+            if (e instanceof ParameterException) {
+                throw (ParameterException) e;
+            }
+
+            String msg = "Exception thrown when reading response file (" + path + ")!";
+            throw interpreter.failed(null, new ExceptionCaughtException(msg, e));
+        }
+    }
+
+    private static void read(Path path, TokenInterpreter interpreter) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPORT)
+                    .onUnmappableCharacter(CodingErrorAction.REPORT);
+
+            ByteBuffer bytes = ByteBuffer.allocate(CHUNK_SIZE);
+            CharBuffer chars = CharBuffer.allocate(CHUNK_SIZE);
+            Tokenizer tokenizer = new Tokenizer(interpreter, false);
+
+            boolean end = false;
+            while (!end) {
+                end = channel.read(bytes) < 0;
+                bytes.flip();
+                decode(decoder, bytes, chars, end, tokenizer);
+                bytes.compact();
+            }
+
+            while (decoder.flush(chars) == CoderResult.OVERFLOW) {
+                feed(chars, tokenizer);
+            }
+            feed(chars, tokenizer);
+
+            tokenizer.end();
+        }
+    }
+
+    private static void decode(CharsetDecoder decoder, ByteBuffer bytes, CharBuffer chars, boolean end, Tokenizer tokenizer) throws IOException {
+        while (true) {
+            CoderResult result = decoder.decode(bytes, chars, end);
+            if (result.isError()) {
+                result.throwException();
+            }
+
+            feed(chars, tokenizer);
+            if (result.isUnderflow()) {
+                return;
+            }
+        }
+    }
+
+    private static void feed(CharBuffer chars, Tokenizer tokenizer) {
+        chars.flip();
+        tokenizer.feed(chars);
+        chars.clear();
+    }
+
+}
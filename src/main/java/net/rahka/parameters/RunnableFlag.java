@@ -27,6 +27,11 @@ public class RunnableFlag extends Flag {
         return false;
     }
 
+    @Override
+    protected boolean isPure() {
+        return false;
+    }
+
     @Override
     protected Object parseArgument(String arg) throws Exception {
         runnable.run();
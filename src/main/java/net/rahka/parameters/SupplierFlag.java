@@ -26,6 +26,16 @@ public class SupplierFlag<T> extends Flag {
         return false;
     }
 
+    @Override
+    protected boolean isPure() {
+        return false;
+    }
+
+    @Override
+    boolean parsesConcurrently() {
+        return true;
+    }
+
     @Override
     protected Object parseArgument(String arg) throws Exception {
         return supplier.supply();
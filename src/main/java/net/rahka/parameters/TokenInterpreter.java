@@ -0,0 +1,675 @@
+package net.rahka.parameters;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The state of a single interpretation while its tokens are interpreted. Tokens are pushed one at a time with
+ * {@link #accept(CharSequence)}, which means that the tokens can come from anywhere and never have to be collected
+ * into an array first. A flag that expects an argument is remembered until the next token arrives.
+ * <p>
+ * Tokens may be views that are re-pointed to the next token once accepted, so no token is kept after it has been
+ * interpreted.
+ * <p>
+ * A token that starts with the prefix but does not name a flag is also tried in two other forms, an exact name always
+ * takes priority over both:
+ * <ul>
+ *     <li>{@code name=value}, where the name is the name or short-hand name of a flag after the prefix, once or
+ *     twice, and the value is the flag's argument. It is an error to give a value to a flag without argument.</li>
+ *     <li>A cluster of single character names after a single prefix, such as {@code -abc} for {@code -a -b -c}. A
+ *     flag that expects an argument ends the cluster and takes the rest of the token as its argument, or the next
+ *     token if it is the last character, so {@code -vn5} and {@code -vn 5} are the same. If any character before that
+ *     is not the name of a flag then the token is ignored as a whole.</li>
+ * </ul>
+ * With a prefix longer than one character, such as "--", a cluster starts with the whole prefix once ({@code --abc})
+ * and the prefix twice marks a name ({@code ----name=value}). Arguments split from a token are views of it, so no
+ * string is created unless the flag's parser needs one.
+ * <p>
+ * A token that is not a flag or an argument of a flag is given to the first required flag that is not present, and
+ * once all required flags are present it is an argument of the positionals. After a token that is the prefix twice,
+ * such as {@code --}, every token is taken this way even if it starts with the prefix.
+ */
+final class TokenInterpreter {
+
+    private final FlagIndex index;
+    private ParameterInterpretation interpretation;
+
+    /**
+     * Whether or not the interpretation has been handed out as a snapshot, in which case it is copied before it is
+     * changed again
+     */
+    private boolean shared;
+
+    /**
+     * Whether or not tokens starting with '@' are replaced by the tokens of the file they name
+     */
+    private final boolean responseFiles;
+
+    /**
+     * The listener that is told about every step of the interpretation, or null if there is none
+     */
+    private final InterpretationListener listener;
+
+    /**
+     * The ordinal of the flag that is waiting for its argument, or -1 if no flag is waiting
+     */
+    private int pending = -1;
+
+    /**
+     * Whether or not the interpretation so far only depends on the tokens, meaning that only pure flags were parsed,
+     * no response files were read and no sources were consulted
+     */
+    private boolean pure = true;
+
+    /**
+     * The parses of flags that are parsed concurrently, or null if every flag is parsed when it is interpreted
+     */
+    private List<DeferredParse> deferred;
+
+    /**
+     * The name or short-hand name that the flag that is waiting for its argument was given by
+     */
+    private String pendingKey;
+
+    /**
+     * The view used to pass the part of a token after '=' or a cluster as an argument, created when first needed
+     */
+    private TokenView argument;
+
+    /**
+     * Whether or not the listener was told that the interpretation failed, which it is told at most once
+     */
+    private boolean failureReported;
+
+    /**
+     * Whether or not the end of the flags was marked, after which every token is unnamed
+     */
+    private boolean flagsEnded;
+
+    /**
+     * The array that the token being interpreted is an element of, or null if it is not from an array
+     */
+    private String[] array;
+
+    /**
+     * The position of the token being interpreted in {@link #array}
+     */
+    private int position;
+
+    /**
+     * The diagnostics of the problems found so far, or null if problems are thrown as exceptions
+     */
+    private List<Diagnostic> diagnostics;
+
+    TokenInterpreter(FlagIndex index, boolean responseFiles, InterpretationListener listener) {
+        this(index, new ParameterInterpretation(index), responseFiles, listener);
+    }
+
+    /**
+     * Creates an interpreter that fills the given interpretation, which must be empty and made with the same index
+     */
+    TokenInterpreter(FlagIndex index, ParameterInterpretation interpretation, boolean responseFiles, InterpretationListener listener) {
+        this.index = index;
+        this.interpretation = interpretation;
+        this.responseFiles = responseFiles;
+        this.listener = listener;
+    }
+
+    /**
+     * Returns an interpreter that fills the given interpretation again after clearing it. The interpreter that filled
+     * the interpretation last time is restarted if it has the same settings, so filling the same interpretation over
+     * and over allocates nothing.
+     *
+     * @throws IllegalArgumentException if the interpretation is shared
+     */
+    static TokenInterpreter refilling(ParameterInterpretation interpretation, boolean responseFiles, InterpretationListener listener) {
+        interpretation.reset();
+
+        TokenInterpreter interpreter = interpretation.filler;
+        if (interpreter == null || interpreter.responseFiles != responseFiles || interpreter.listener != listener) {
+            interpreter = new TokenInterpreter(interpretation.index, interpretation, responseFiles, listener);
+            interpretation.filler = interpreter;
+        } else {
+            interpreter.pending = -1;
+            interpreter.pendingKey = null;
+            interpreter.pure = true;
+            interpreter.flagsEnded = false;
+            interpreter.failureReported = false;
+        }
+
+        return interpreter;
+    }
+
+    /**
+     * Makes the parsing of flags that are parsed concurrently be deferred instead of done when they are interpreted.
+     * The flags are still marked as present in the interpretation, their values are added by the deferred parses.
+     */
+    void deferConcurrentParses() {
+        deferred = new ArrayList<>();
+    }
+
+    /**
+     * Makes problems be collected as diagnostics instead of thrown as exceptions, a flag with a problem is left out
+     * of the interpretation and the interpretation continues with the next token
+     */
+    void collectDiagnostics() {
+        diagnostics = new ArrayList<>();
+    }
+
+    /**
+     * Returns the collected diagnostics, or null if diagnostics are not collected
+     */
+    List<Diagnostic> diagnostics() {
+        return diagnostics;
+    }
+
+    /**
+     * Used when collecting diagnostics to record an exception thrown while accepting a token, such as one from
+     * reading a response file
+     */
+    void collect(ParameterException exception) {
+        diagnostics.add(Diagnostic.other(exception));
+    }
+
+    /**
+     * Returns the parses that were deferred, in the order their flags were interpreted
+     */
+    List<DeferredParse> deferred() {
+        return deferred;
+    }
+
+    /**
+     * Interprets the next token, or the tokens of the response file that it names
+     *
+     * @throws NonMatchingArgumentException if the argument of a {@link CollectionFlag} did not exist in its collection
+     * @throws ExceptionCaughtException     if a exception was thrown when parsing a flag or reading a response file
+     */
+    void accept(CharSequence token) {
+        if (responseFiles && token.length() > 0 && token.charAt(0) == '@') {
+            if (token.length() > 1 && token.charAt(1) == '@') {
+                interpretToken(token.subSequence(1, token.length()));
+            } else {
+                pure = false;
+                ResponseFile.read(token.subSequence(1, token.length()).toString(), this);
+            }
+        } else {
+            interpretToken(token);
+        }
+    }
+
+    /**
+     * Interprets the element at the position of the array, see {@link #accept(CharSequence)}. Arguments of the
+     * positionals that are consecutive elements of the array are kept as a view of it instead of being copied.
+     */
+    void accept(String[] array, int position) {
+        this.array = array;
+        this.position = position;
+        accept(array[position]);
+        this.array = null;
+    }
+
+    /**
+     * Interprets the next token as it is, used for the tokens of response files since they are not expanded again
+     */
+    void interpretToken(CharSequence token) {
+        if (shared) {
+            interpretation = interpretation.copy();
+            shared = false;
+        }
+
+        if (listener != null) {
+            listener.tokenScanned(token);
+        }
+
+        if (pending >= 0) {
+            int ordinal = pending;
+            pending = -1;
+            pendingKey = null;
+            parse(ordinal, token);
+            return;
+        }
+
+        if (!flagsEnded && index.isEndOfFlags(token)) {
+            flagsEnded = true;
+            return;
+        }
+
+        int start = flagsEnded ? -1 : index.nameStart(token);
+        if (start >= 0) {
+            int ordinal = index.find(token, start, token.length());
+            if (ordinal >= 0) {
+                if (listener != null) {
+                    listener.flagMatched(index.flags[ordinal], token);
+                }
+
+                if (index.flags[ordinal].expectsArgument()) {
+                    pending = ordinal;
+                    pendingKey = key(index.flags[ordinal], token, start);
+                } else {
+                    parse(ordinal, null);
+                }
+            } else if (!interpretAssignment(token, start) && !interpretCluster(token, start) && listener != null) {
+                listener.unknownFlagIgnored(token);
+            }
+        } else {
+            int ordinal;
+            while ((ordinal = interpretation.popRequired()) >= 0) { //Ignore any superfluous unnamed parameters
+                if (listener != null) {
+                    listener.flagMatched(index.flags[ordinal], token);
+                }
+
+                if (index.flags[ordinal].expectsArgument()) {
+                    parse(ordinal, token);
+                    return;
+                }
+
+                parse(ordinal, null);
+            }
+
+            if (index.positionals.length > 0) {
+                interpretation.addPositional(token, (array != null && array[position] == token) ? array : null, position);
+            }
+        }
+    }
+
+    /**
+     * Interprets a token of the form {@code name=value}. Returns false, without interpreting anything, if the token
+     * has no '=' or the characters before it do not name a flag.
+     *
+     * @throws ParameterException if the flag does not expect an argument
+     */
+    private boolean interpretAssignment(CharSequence token, int start) {
+        int equals = start;
+        while (equals < token.length() && token.charAt(equals) != '=') {
+            equals++;
+        }
+
+        if (equals == start || equals == token.length()) {
+            return false;
+        }
+
+        int ordinal = index.find(token, start, equals);
+        if (ordinal < 0) {
+            return false;
+        }
+
+        Flag flag = index.flags[ordinal];
+        if (listener != null) {
+            listener.flagMatched(flag, token);
+        }
+
+        if (!flag.expectsArgument()) {
+            if (diagnostics != null) {
+                diagnostics.add(Diagnostic.unexpectedArgument(flag, token.toString()));
+                return true;
+            }
+
+            throw failed(flag, new ParameterException("Flag does not take an argument: " + token));
+        }
+
+        parse(ordinal, slice(token, equals + 1));
+        return true;
+    }
+
+    /**
+     * Interprets a token that is a cluster of single character names after a single prefix. Returns false, without
+     * interpreting anything, if any character of the cluster does not name a flag.
+     */
+    private boolean interpretCluster(CharSequence token, int start) {
+        if (start != index.prefix.length() || token.length() - start < 2) {
+            return false;
+        }
+
+        for (int i = start; i < token.length(); i++) {
+            int ordinal = index.find(token, i, i + 1);
+            if (ordinal < 0) {
+                return false;
+            }
+
+            if (index.flags[ordinal].expectsArgument()) {
+                break; //The rest of the cluster is the argument
+            }
+        }
+
+        for (int i = start; i < token.length(); i++) {
+            int ordinal = index.find(token, i, i + 1);
+            Flag flag = index.flags[ordinal];
+            if (listener != null) {
+                listener.flagMatched(flag, token);
+            }
+
+            if (flag.expectsArgument()) {
+                if (i + 1 < token.length()) {
+                    parse(ordinal, slice(token, i + 1));
+                } else {
+                    pending = ordinal;
+                    pendingKey = key(flag, token, i);
+                }
+                return true;
+            }
+
+            parse(ordinal, null);
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns a view of the characters of the token from {@code start} to its end
+     */
+    private CharSequence slice(CharSequence token, int start) {
+        if (argument == null) {
+            argument = new TokenView(token);
+        }
+
+        return argument.set(token, start, token.length());
+    }
+
+    /**
+     * Ends the interpretation and returns it. If the interpretation has been handed out as a snapshot then the values
+     * of the sources are added to a copy of it, which is returned, and the tokens that follow are interpreted as if
+     * the interpretation had not ended.
+     *
+     * @throws MissingFlagException         if a required flag is not present
+     * @throws MissingArgumentException     if the last flag requires an argument or the positionals need more
+     *                                      arguments
+     * @throws ParameterException           if there are more arguments than the positionals can take
+     * @throws ConstraintViolationException if the present flags violate any constraints
+     */
+    ParameterInterpretation finish() {
+        if (diagnostics != null) {
+            if (pending >= 0) {
+                diagnostics.add(Diagnostic.missingArgument(index.flags[pending], index.prefix + pendingKey));
+            }
+
+            ParameterInterpretation result = resolveSources();
+
+            if (result.isMissingRequired()) {
+                for (Flag flag : result.missingRequired()) {
+                    if (!hasDiagnostic(flag)) { //A required flag whose argument was invalid is not missing
+                        diagnostics.add(Diagnostic.missingFlag(flag));
+                    }
+                }
+            }
+
+            int count = interpretation.positionalCount();
+            if (count < index.positionalMinimum) {
+                diagnostics.add(Diagnostic.missingPositional(index, count));
+            } else if (index.positionalMaximum >= 0 && count > index.positionalMaximum) {
+                diagnostics.add(Diagnostic.unexpectedPositional(interpretation.getPositionals().get(index.positionalMaximum)));
+            }
+
+            for (Constraint constraint : result.violatedConstraints()) {
+                diagnostics.add(Diagnostic.constraintViolation(constraint));
+            }
+
+            return result;
+        }
+
+        if (pending >= 0) {
+            throw failed(index.flags[pending], new MissingArgumentException("Missing argument for: " + index.prefix + pendingKey));
+        }
+
+        ParameterInterpretation result = resolveSources();
+
+        if (result.isMissingRequired()) {
+            throw failed(null, new MissingFlagException(result.missingRequired()));
+        }
+
+        ParameterException positionals = positionalProblem();
+        if (positionals != null) {
+            throw failed(null, positionals);
+        }
+
+        List<Constraint> violated = result.violatedConstraints();
+        if (!violated.isEmpty()) {
+            throw failed(null, new ConstraintViolationException(violated));
+        }
+
+        return result;
+    }
+
+    /**
+     * Looks up every flag that is not present in the sources, in order of precedence, and parses the argument of the
+     * first source that has one. Flags that are overridden by a later flag with the same name and flags that are not
+     * pure are not looked up. Returns the interpretation with the values of the sources, which is a copy if the interpretation has been
+     * handed out as a snapshot, so that neither the snapshot nor the interpretation of later tokens gets the values.
+     *
+     * @throws ExceptionCaughtException if a source threw an exception
+     */
+    private ParameterInterpretation resolveSources() {
+        ParameterSource[] sources = index.sources;
+        if (sources.length == 0) {
+            return interpretation;
+        }
+
+        ParameterInterpretation tokens = interpretation;
+        try {
+            for (int ordinal = 0; ordinal < index.flags.length; ordinal++) {
+                Flag flag = index.flags[ordinal];
+                if (index.slots[ordinal] != ordinal || !flag.isPure() || interpretation.isPresent(ordinal)) {
+                    continue; //Flags with side effects, such as RunnableFlags, are only ever run from the command line
+                }
+
+                pure = false; //Sources may answer differently next time, even if they have no value now
+                for (ParameterSource source : sources) {
+                    String value;
+                    try {
+                        value = source.lookup(flag);
+                    } catch (RuntimeException e) {
+                        ParameterException exception = (e instanceof ParameterException) ? (ParameterException) e
+                                : new ExceptionCaughtException("Exception thrown when looking up flag (" + flag.getName() + ") in a source!", e);
+                        if (diagnostics == null) {
+                            throw failed(flag, exception);
+                        }
+
+                        diagnostics.add(Diagnostic.other(exception));
+                        break;
+                    }
+
+                    if (value != null) {
+                        if (shared && interpretation == tokens) {
+                            interpretation = tokens.copy();
+                        }
+
+                        if (flag.expectsArgument()) {
+                            parse(ordinal, value);
+                        } else if (!value.equalsIgnoreCase("false")) {
+                            parse(ordinal, null);
+                        }
+                        break;
+                    }
+                }
+            }
+
+            return interpretation;
+        } finally {
+            interpretation = tokens; //The values of the sources are parsed into the returned interpretation only
+        }
+    }
+
+    /**
+     * Returns the exception for positionals that need more arguments or for arguments that no positional can take,
+     * or null if the positionals can take the arguments
+     */
+    private ParameterException positionalProblem() {
+        int count = interpretation.positionalCount();
+        if (count < index.positionalMinimum) {
+            return new MissingArgumentException("Missing positional arguments (" + index.missingPositionals(count) + ")!");
+        }
+
+        if (index.positionalMaximum >= 0 && count > index.positionalMaximum) {
+            return new ParameterException("Unexpected positional argument: " + interpretation.getPositionals().get(index.positionalMaximum));
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns whether or not the positionals can take the arguments given so far
+     */
+    boolean positionalsComplete() {
+        int count = interpretation.positionalCount();
+        return count >= index.positionalMinimum && (index.positionalMaximum < 0 || count <= index.positionalMaximum);
+    }
+
+    /**
+     * Returns the interpretation of the tokens so far without checking that it is complete. The returned
+     * interpretation is not changed by later tokens, it is copied when the next token is interpreted.
+     */
+    ParameterInterpretation snapshot() {
+        shared = true;
+        interpretation.share();
+        return interpretation;
+    }
+
+    /**
+     * Returns the flag that is waiting for its argument, or null if no flag is waiting
+     */
+    Flag pendingFlag() {
+        return (pending >= 0) ? index.flags[pending] : null;
+    }
+
+    /**
+     * Returns the first required flag that is not present, which is the flag the next unnamed token is given to, or
+     * null if all required flags are present
+     */
+    Flag nextRequired() {
+        int ordinal = interpretation.peekRequired();
+        return (ordinal >= 0) ? index.flags[ordinal] : null;
+    }
+
+    /**
+     * Returns the constraints that the flags present so far violate
+     */
+    List<Constraint> violatedConstraints() {
+        return interpretation.violatedConstraints();
+    }
+
+    /**
+     * Returns all required flags that are not present
+     */
+    List<Flag> missingRequired() {
+        return interpretation.missingRequired();
+    }
+
+    /**
+     * Returns whether or not the interpretation only depends on the tokens, and can therefore be reused for the same
+     * tokens
+     */
+    boolean isPure() {
+        return pure && !interpretation.hasPositionalView(); //A view changes with the array
+    }
+
+    /**
+     * Tells the listener, if any, that the interpretation failed and returns the exception so that it can be thrown.
+     * The listener is only told about the first failure of an interpretation, such as an incremental one that goes on
+     * after a token failed, and is never told when problems are collected as diagnostics.
+     *
+     * @param flag the flag that caused the exception, or null if it was not caused by a single flag
+     */
+    ParameterException failed(Flag flag, ParameterException exception) {
+        if (listener != null && diagnostics == null && !failureReported) {
+            failureReported = true;
+            listener.exceptionThrown(flag, exception);
+        }
+
+        return exception;
+    }
+
+    /**
+     * Returns the name or short-hand name of the flag that equals the characters of the token after {@code start}
+     */
+    private static String key(Flag flag, CharSequence token, int start) {
+        String name = flag.getName();
+        if (name.length() != token.length() - start) {
+            return flag.getFlag();
+        }
+
+        for (int i = 0; i < name.length(); i++) {
+            if (name.charAt(i) != token.charAt(start + i)) {
+                return flag.getFlag();
+            }
+        }
+
+        return name;
+    }
+
+    private void parse(int ordinal, CharSequence arg) {
+        Flag flag = index.flags[ordinal];
+        int slot = index.slots[ordinal];
+        pure &= flag.isPure();
+
+        if (deferred != null && flag.parsesConcurrently()) {
+            deferred.add(new DeferredParse(slot, flag, (arg == null) ? null : arg.toString(), listener));
+            interpretation.addFlag(slot, null);
+            return;
+        }
+
+        if (diagnostics != null) {
+            parseCollecting(slot, flag, arg);
+            return;
+        }
+
+        long start = 0;
+        if (listener != null) {
+            listener.parseStarted(flag);
+            start = System.nanoTime();
+        }
+
+        try {
+            flag.parseInto(interpretation, slot, arg);
+        } catch (ParameterException e) {
+            throw failed(flag, e); //We dont want to wrap exceptions thrown by ourselves
+        } catch (Exception e) {
+            String msg = "Exception thrown when parsing argument for flag (" + flag.getName() + ")!";
+            throw failed(flag, new ExceptionCaughtException(msg, e));
+        }
+
+        if (listener != null) {
+            listener.parseEnded(flag, System.nanoTime() - start);
+        }
+    }
+
+    private boolean hasDiagnostic(Flag flag) {
+        for (Diagnostic diagnostic : diagnostics) {
+            if (diagnostic.getFlag() == flag) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Parses a flag's argument when collecting diagnostics, arguments that do not match the options of a flag are
+     * found without parsing them
+     */
+    private void parseCollecting(int slot, Flag flag, CharSequence arg) {
+        if (arg != null && flag.options() != null) {
+            String string = arg.toString();
+            if (!flag.accepts(string)) {
+                diagnostics.add(Diagnostic.nonMatchingArgument(flag, string, flag.options()));
+                return;
+            }
+        }
+
+        long start = 0;
+        if (listener != null) {
+            listener.parseStarted(flag);
+            start = System.nanoTime();
+        }
+
+        try {
+            flag.parseInto(interpretation, slot, arg);
+        } catch (Exception e) {
+            diagnostics.add(Diagnostic.parseFailure(flag, (arg == null) ? null : arg.toString(), e));
+            return;
+        }
+
+        if (listener != null) {
+            listener.parseEnded(flag, System.nanoTime() - start);
+        }
+    }
+
+}
@@ -0,0 +1,61 @@
+package net.rahka.parameters;
+
+/**
+ * A view of a region of a larger character sequence, used to interpret tokens in place without copying them. The
+ * view is re-pointed to every token in turn, so anything that needs to keep the characters of a token must copy them
+ * with {@link #toString()}.
+ */
+final class TokenView implements CharSequence {
+
+    private CharSequence source;
+
+    private int start;
+    private int end;
+
+    TokenView(CharSequence source) {
+        this.source = source;
+    }
+
+    /**
+     * Points this view to the characters of another source between {@code start} (inclusive) and {@code end}
+     * (exclusive)
+     */
+    TokenView set(CharSequence source, int start, int end) {
+        this.source = source;
+        return set(start, end);
+    }
+
+    /**
+     * Points this view to the characters of the source between {@code start} (inclusive) and {@code end} (exclusive)
+     */
+    TokenView set(int start, int end) {
+        if (start < 0 || start > end || end > source.length()) {
+            throw new IndexOutOfBoundsException("Token [" + start + ", " + end + ") is outside of the source");
+        }
+
+        this.start = start;
+        this.end = end;
+        return this;
+    }
+
+    @Override
+    public int length() {
+        return end - start;
+    }
+
+    @Override
+    public char charAt(int index) {
+        return source.charAt(start + index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return source.subSequence(this.start + start, this.start + end);
+    }
+
+    @Override
+    public String toString() {
+        return source.subSequence(start, end).toString();
+    }
+
+}
@@ -0,0 +1,177 @@
+package net.rahka.parameters;
+
+/**
+ * Splits characters into tokens and passes every token on to a {@link TokenInterpreter} as soon as it is complete.
+ * The characters can be fed in chunks of any size, a token may span several chunks.
+ * <p>
+ * Tokens are separated by whitespace. Characters between single quotes are taken literally, between double quotes
+ * a backslash only escapes a double quote or another backslash, and outside of quotes a backslash escapes any
+ * character. Quoted and unquoted parts that are not separated by whitespace belong to the same token, and a pair of
+ * quotes with nothing between them is an empty token.
+ * <p>
+ * A token without quotes or backslashes that lies within a single chunk is passed on as a view of the chunk, any
+ * other token is collected in a builder that is cleared when the next token starts. Either way the tokens passed on
+ * must be copied if they are kept.
+ */
+final class Tokenizer {
+
+    private final TokenInterpreter interpreter;
+    private final StringBuilder token;
+
+    /**
+     * Whether or not tokens are passed on with {@link TokenInterpreter#accept(CharSequence)}, which expands response
+     * files, instead of with {@link TokenInterpreter#interpretToken(CharSequence)}
+     */
+    private final boolean expand;
+
+    /**
+     * Whether or not a token has started, which is the case even if it is still empty
+     */
+    private boolean inToken;
+
+    /**
+     * The quote character of the quote that is currently open, or 0 if no quote is open
+     */
+    private char quote;
+
+    /**
+     * Whether or not the previous character was a backslash that escapes the next one
+     */
+    private boolean escaped;
+
+    Tokenizer(TokenInterpreter interpreter, boolean expand) {
+        this.interpreter = interpreter;
+        this.token = new StringBuilder();
+        this.expand = expand;
+    }
+
+    /**
+     * Splits the characters into tokens, a token at the end of the characters is completed by later characters or by
+     * {@link #end()}
+     */
+    void feed(CharSequence chars) {
+        tokenize(chars, false);
+    }
+
+    /**
+     * Splits the characters into tokens when they are all that is left, which is the same as feeding them and then
+     * calling {@link #end()}
+     *
+     * @throws ParameterException if a quote is not closed or the last character is an escaping backslash
+     */
+    void tokenize(CharSequence chars) {
+        tokenize(chars, true);
+    }
+
+    /**
+     * Completes the last token
+     *
+     * @throws ParameterException if a quote is not closed or the last character is an escaping backslash
+     */
+    void end() {
+        if (quote != 0) {
+            throw interpreter.failed(null, new ParameterException("Missing closing quote (" + quote + ") after: " + token));
+        }
+
+        if (escaped) {
+            throw interpreter.failed(null, new ParameterException("Nothing to escape after: " + token));
+        }
+
+        if (inToken) {
+            inToken = false;
+            emit(token);
+        }
+    }
+
+    private void tokenize(CharSequence chars, boolean last) {
+        TokenView view = null;
+
+        // The start of a token that has no quotes or escapes so far, and whose characters are not in the builder
+        int plain = -1;
+
+        for (int i = 0; i < chars.length(); i++) {
+            char c = chars.charAt(i);
+
+            if (plain >= 0) {
+                if (Character.isWhitespace(c)) {
+                    inToken = false;
+                    view = (view == null) ? new TokenView(chars) : view;
+                    emit(view.set(plain, i));
+                    plain = -1;
+                    continue;
+                } else if (c != '\\' && c != '"' && c != '\'') {
+                    continue;
+                }
+
+                token.append(chars, plain, i);
+                plain = -1;
+            }
+
+            if (escaped) {
+                escaped = false;
+                if (quote == '"' && c != '"' && c != '\\') {
+                    token.append('\\');
+                }
+                token.append(c);
+            } else if (quote == '\'') {
+                if (c == '\'') {
+                    quote = 0;
+                } else {
+                    token.append(c);
+                }
+            } else if (c == '\\') {
+                start();
+                escaped = true;
+            } else if (quote == '"') {
+                if (c == '"') {
+                    quote = 0;
+                } else {
+                    token.append(c);
+                }
+            } else if (c == '"' || c == '\'') {
+                start();
+                quote = c;
+            } else if (Character.isWhitespace(c)) {
+                if (inToken) {
+                    inToken = false;
+                    emit(token);
+                }
+            } else if (inToken) {
+                token.append(c);
+            } else {
+                start();
+                plain = i;
+            }
+        }
+
+        if (plain >= 0) {
+            if (last) {
+                inToken = false;
+                view = (view == null) ? new TokenView(chars) : view;
+                emit(view.set(plain, chars.length()));
+            } else {
+                token.append(chars, plain, chars.length());
+            }
+        }
+
+        if (last) {
+            end();
+        }
+    }
+
+    private void start() {
+        if (!inToken) {
+            inToken = true;
+            token.setLength(0);
+        }
+    }
+
+    private void emit(CharSequence token) {
+        if (expand) {
+            interpreter.accept(token);
+        } else {
+            interpreter.interpretToken(token);
+        }
+    }
+
+}
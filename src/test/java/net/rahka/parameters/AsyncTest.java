@@ -0,0 +1,115 @@
+package net.rahka.parameters;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static junit.framework.TestCase.*;
+
+public class AsyncTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @After
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void interpretAsync_runsParsersConcurrently() throws Exception {
+        CountDownLatch latch = new CountDownLatch(2);
+        FunctionFlag.Function<String> parser = (arg) -> {
+            latch.countDown();
+            if (!latch.await(10, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("Parsers did not run concurrently");
+            }
+            return arg;
+        };
+
+        ParameterInterpreter interpreter = new ParameterInterpreter(
+                new FunctionFlag<>("first", "f", "Flag description", parser),
+                new FunctionFlag<>("second", "s", "Flag description", parser)
+        );
+
+        ParameterInterpretation interpretation = interpreter.interpretAsync(new String[] {"-f", "a", "-s", "b"}, executor).get(10, TimeUnit.SECONDS);
+
+        assertEquals("a", interpretation.get("first"));
+        assertEquals("b", interpretation.get("second"));
+    }
+
+    @Test
+    public void interpretAsync_runsSideEffectsInOrder() throws Exception {
+        List<String> effects = new ArrayList<>();
+        ParameterInterpreter interpreter = new ParameterInterpreter(
+                new RunnableFlag("run", "r", "Flag description", () -> effects.add("run")),
+                new ConsumerFlag("consume", "c", "Flag description", effects::add),
+                new SupplierFlag<>("supply", "s", "Flag description", () -> 5)
+        );
+
+        ParameterInterpretation interpretation = interpreter.interpretAsync(new String[] {"-c", "first", "-r", "-s", "-c", "second"}, executor).get(10, TimeUnit.SECONDS);
+
+        assertEquals(List.of("first", "run", "second"), effects);
+        assertEquals(5, (int) interpretation.get("supply"));
+    }
+
+    @Test
+    public void interpretAsync_keepsLastOccurrence_whenFlagIsRepeated() throws Exception {
+        ParameterInterpreter interpreter = new ParameterInterpreter(
+                new FunctionFlag<>("value", "v", "Flag description", Integer::parseInt)
+        );
+
+        ParameterInterpretation interpretation = interpreter.interpretAsync(new String[] {"-v", "1", "-v", "2"}, executor).get(10, TimeUnit.SECONDS);
+
+        assertEquals(2, (int) interpretation.get("value"));
+    }
+
+    @Test
+    public void interpretAsync_fillsNextRequiredFlag_whenConcurrentFlagIsGiven() throws Exception {
+        ParameterInterpreter interpreter = new ParameterInterpreter(
+                new FunctionFlag<>("first", "f", "Flag description", Integer::parseInt, true),
+                new IntFlag("second", "s", "Flag description", true)
+        );
+
+        ParameterInterpretation interpretation = interpreter.interpretAsync(new String[] {"-f", "1", "2"}).get(10, TimeUnit.SECONDS);
+
+        assertEquals(1, (int) interpretation.get("first"));
+        assertEquals(2, interpretation.getInt("second", 0));
+    }
+
+    @Test
+    public void interpretAsync_failsWithExceptionOfFirstFlag_whenParsersThrow() throws Exception {
+        ParameterInterpreter interpreter = new ParameterInterpreter(
+                new FunctionFlag<>("first", "f", "Flag description", Integer::parseInt),
+                new FunctionFlag<>("second", "s", "Flag description", (arg) -> { throw new IllegalStateException(); })
+        );
+
+        try {
+            interpreter.interpretAsync(new String[] {"-f", "x", "-s", "y"}, executor).get(10, TimeUnit.SECONDS);
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof ExceptionCaughtException);
+            assertTrue(e.getCause().getCause() instanceof NumberFormatException);
+        }
+    }
+
+    @Test
+    public void interpretAsync_fails_whenRequiredFlagIsMissing() throws Exception {
+        ParameterInterpreter interpreter = new ParameterInterpreter(
+                new FunctionFlag<>("first", "f", "Flag description", Integer::parseInt, true)
+        );
+
+        CompletableFuture<ParameterInterpretation> future = interpreter.interpretAsync(new String[0], executor);
+
+        assertTrue(future.isCompletedExceptionally());
+        try {
+            future.get();
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof MissingFlagException);
+        }
+    }
+
+}
@@ -0,0 +1,132 @@
+package net.rahka.parameters;
+
+import org.junit.Test;
+
+import static junit.framework.TestCase.*;
+import static org.mockito.Mockito.*;
+
+public class CacheTest {
+
+    ParameterInterpreter interpreter;
+
+    @Test
+    public void interpreter_returnsCachedInterpretation_forEqualArguments() throws Exception {
+        FunctionFlag.Function<Integer> function = mock(FunctionFlag.Function.class);
+        when(function.parse("4")).thenReturn(4);
+
+        interpreter = new ParameterInterpreter(
+                new FunctionFlag<>("int", "i", "Flag description", function)
+        );
+        interpreter.setCache(16);
+
+        ParameterInterpretation first = interpreter.interpret(new String[]{"-i", "4"});
+        ParameterInterpretation second = interpreter.interpret(new String[]{"-i", "4"});
+
+        assertSame(first, second);
+        assertEquals(4, (int) second.get("int"));
+        verify(function, times(1)).parse("4");
+
+        CacheStatistics statistics = interpreter.getCacheStatistics();
+        assertEquals(1, statistics.getHits());
+        assertEquals(1, statistics.getMisses());
+        assertEquals(1, statistics.getSize());
+    }
+
+    @Test
+    public void interpreter_bypassesCache_whenFlagsAreNotPure() throws Exception {
+        RunnableFlag.Runnable runnable = mock(RunnableFlag.Runnable.class);
+
+        interpreter = new ParameterInterpreter(
+                new RunnableFlag("runnable", "r", "Flag description", runnable),
+                new IntFlag("int", "i", "Flag description")
+        );
+        interpreter.setCache(16);
+
+        interpreter.interpret(new String[]{"-r", "-i", "4"});
+        interpreter.interpret(new String[]{"-r", "-i", "4"});
+
+        verify(runnable, times(2)).run();
+        assertEquals(0, interpreter.getCacheStatistics().getHits());
+        assertEquals(0, interpreter.getCacheStatistics().getSize());
+    }
+
+    @Test
+    public void interpreter_cachesFlags_thatAreMarkedPure() throws Exception {
+        SupplierFlag.Supplier<Integer> supplier = mock(SupplierFlag.Supplier.class);
+        when(supplier.supply()).thenReturn(4);
+
+        interpreter = new ParameterInterpreter(
+                new SupplierFlag<>("supplier", "s", "Flag description", supplier) {
+                    @Override
+                    protected boolean isPure() {
+                        return true;
+                    }
+                }
+        );
+        interpreter.setCache(16);
+
+        interpreter.interpret(new String[]{"-s"});
+        interpreter.interpret(new String[]{"-s"});
+
+        verify(supplier, times(1)).supply();
+    }
+
+    @Test
+    public void interpreter_evictsLeastRecentlyUsedInterpretation_whenCacheIsFull() {
+        interpreter = new ParameterInterpreter(
+                new IntFlag("int", "i", "Flag description")
+        );
+        interpreter.setCache(2);
+
+        ParameterInterpretation one = interpreter.interpret(new String[]{"-i", "1"});
+        interpreter.interpret(new String[]{"-i", "2"});
+        interpreter.interpret(new String[]{"-i", "1"});
+        interpreter.interpret(new String[]{"-i", "3"});
+
+        assertSame(one, interpreter.interpret(new String[]{"-i", "1"}));
+        assertNotSame(interpreter.interpret(new String[]{"-i", "2"}), interpreter.interpret(new String[]{"-i", "5"}));
+
+        CacheStatistics statistics = interpreter.getCacheStatistics();
+        assertEquals(2, statistics.getSize());
+        assertTrue(statistics.getEvictions() >= 2);
+    }
+
+    @Test
+    public void interpreter_doesNotReturnCachedInterpretation_whenFlagsWereAdded() {
+        interpreter = new ParameterInterpreter(
+                new IntFlag("int", "i", "Flag description")
+        );
+        interpreter.setCache(16);
+
+        ParameterInterpretation first = interpreter.interpret(new String[]{"-i", "1", "-n"});
+        interpreter.addFlag(new Flag("new", "n", "Flag description"));
+        ParameterInterpretation second = interpreter.interpret(new String[]{"-i", "1", "-n"});
+
+        assertNotSame(first, second);
+        assertFalse(first.has("new"));
+        assertTrue(second.has("new"));
+    }
+
+    @Test
+    public void interpreter_isNotAffectedByChangedArguments_afterCaching() {
+        interpreter = new ParameterInterpreter(
+                new IntFlag("int", "i", "Flag description")
+        );
+        interpreter.setCache(16);
+
+        String[] args = {"-i", "1"};
+        ParameterInterpretation first = interpreter.interpret(args);
+        args[1] = "2";
+
+        assertEquals(2, interpreter.interpret(args).getInt("int", 0));
+        assertSame(first, interpreter.interpret(new String[]{"-i", "1"}));
+    }
+
+    @Test
+    public void getCacheStatistics_returnsNull_whenCacheIsNotEnabled() {
+        interpreter = new ParameterInterpreter();
+
+        assertNull(interpreter.getCacheStatistics());
+    }
+
+}
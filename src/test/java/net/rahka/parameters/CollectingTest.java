@@ -0,0 +1,112 @@
+package net.rahka.parameters;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static junit.framework.TestCase.*;
+
+public class CollectingTest {
+
+    @Test
+    public void interpretCollecting_succeeds_whenArgumentsAreValid() {
+        ParameterInterpreter interpreter = new ParameterInterpreter(
+                new IntFlag("number", "n", "Flag description", true)
+        );
+
+        CollectedInterpretation result = interpreter.interpretCollecting(new String[]{"-n", "4"});
+
+        assertTrue(result.isSuccess());
+        assertTrue(result.getDiagnostics().isEmpty());
+        assertEquals(4, result.getInterpretation().getInt("number", 0));
+    }
+
+    @Test
+    public void interpretCollecting_collectsAllProblems() {
+        ParameterInterpreter interpreter = new ParameterInterpreter(
+                new IntFlag("number", "n", "Flag description"),
+                new CollectionFlag<>("color", "c", "Flag description", Arrays.asList("red", "green")),
+                new Flag("verbose", "v", "Flag description"),
+                new SupplierFlag<>("name", "a", "Flag description", () -> "Erik"),
+                new FunctionFlag<>("required", "r", "Flag description", (arg) -> arg, true),
+                new FunctionFlag<>("last", "l", "Flag description", (arg) -> arg)
+        );
+
+        CollectedInterpretation result = interpreter.interpretCollecting(new String[]{"-n", "four", "-c", "blue", "--verbose=yes", "-a", "-l"});
+        List<Diagnostic> diagnostics = result.getDiagnostics();
+
+        assertFalse(result.isSuccess());
+        assertEquals(5, diagnostics.size());
+
+        assertEquals(Diagnostic.Kind.PARSE_FAILURE, diagnostics.get(0).getKind());
+        assertEquals("number", diagnostics.get(0).getFlag().getName());
+        assertEquals("four", diagnostics.get(0).getArgument());
+        assertTrue(diagnostics.get(0).getCause() instanceof NumberFormatException);
+
+        assertEquals(Diagnostic.Kind.NON_MATCHING_ARGUMENT, diagnostics.get(1).getKind());
+        assertEquals("Invalid option (blue)! Allowed options are {red, green}!", diagnostics.get(1).getMessage());
+        assertNull(diagnostics.get(1).getCause());
+
+        assertEquals(Diagnostic.Kind.UNEXPECTED_ARGUMENT, diagnostics.get(2).getKind());
+        assertEquals(Diagnostic.Kind.MISSING_ARGUMENT, diagnostics.get(3).getKind());
+        assertEquals("Missing argument for: -l", diagnostics.get(3).getMessage());
+        assertEquals(Diagnostic.Kind.MISSING_FLAG, diagnostics.get(4).getKind());
+        assertEquals("required", diagnostics.get(4).getFlag().getName());
+
+        assertFalse(result.getInterpretation().has("number"));
+        assertFalse(result.getInterpretation().has("color"));
+        assertEquals("Erik", result.getInterpretation().get("name"));
+    }
+
+    @Test
+    public void interpretCollecting_doesNotReportMissingFlag_whenRequiredArgumentIsInvalid() {
+        ParameterInterpreter interpreter = new ParameterInterpreter(
+                new IntFlag("number", "n", "Flag description", true)
+        );
+
+        List<Diagnostic> diagnostics = interpreter.interpretCollecting(new String[]{"four"}).getDiagnostics();
+
+        assertEquals(1, diagnostics.size());
+        assertEquals(Diagnostic.Kind.PARSE_FAILURE, diagnostics.get(0).getKind());
+    }
+
+    @Test
+    public void interpretCollecting_collectsUnreadableResponseFile_andContinues() {
+        ParameterInterpreter interpreter = new ParameterInterpreter(
+                new IntFlag("number", "n", "Flag description")
+        );
+        interpreter.setResponseFiles(true);
+
+        CollectedInterpretation result = interpreter.interpretCollecting(new String[]{"@does-not-exist", "-n", "3"});
+
+        assertEquals(1, result.getDiagnostics().size());
+        assertEquals(Diagnostic.Kind.OTHER, result.getDiagnostics().get(0).getKind());
+        assertEquals(3, result.getInterpretation().getInt("number", 0));
+    }
+
+    @Test
+    public void interpretCollecting_collectsPositionalProblems_asTheirOwnKinds() {
+        ParameterInterpreter interpreter = new ParameterInterpreter();
+        interpreter.addPositionals(Positional.required("source", "Positional description"), Positional.required("target", "Positional description"));
+
+        Diagnostic missing = interpreter.interpretCollecting(new String[]{"a"}).getDiagnostics().get(0);
+        Diagnostic unexpected = interpreter.interpretCollecting(new String[]{"a", "b", "c"}).getDiagnostics().get(0);
+
+        assertEquals(Diagnostic.Kind.MISSING_POSITIONAL, missing.getKind());
+        assertNull(missing.getCause());
+        assertEquals("Missing positional arguments (target)!", missing.getMessage());
+        assertEquals(Diagnostic.Kind.UNEXPECTED_POSITIONAL, unexpected.getKind());
+        assertEquals("c", unexpected.getArgument());
+        assertEquals("Unexpected positional argument: c", unexpected.getMessage());
+    }
+
+    @Test
+    public void nonMatchingArgumentException_buildsMessageWhenRetrieved() {
+        NonMatchingArgumentException exception = new NonMatchingArgumentException("blue", Arrays.asList("red", "green"));
+
+        assertEquals("Invalid option (blue)! Allowed options are {red, green}!", exception.getMessage());
+        assertSame(exception.getMessage(), exception.getMessage());
+    }
+
+}
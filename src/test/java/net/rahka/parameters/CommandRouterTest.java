@@ -0,0 +1,161 @@
+package net.rahka.parameters;
+
+import org.junit.Test;
+
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static junit.framework.TestCase.*;
+
+public class CommandRouterTest {
+
+    @Test
+    public void interpret_buildsOnlyUsedCommand_once() {
+        AtomicInteger built = new AtomicInteger();
+        CommandRouter router = new CommandRouter();
+        router.addCommand("push", () -> {
+            built.incrementAndGet();
+            return new ParameterInterpreter(new IntFlag("depth", "d", "Flag description"));
+        });
+        router.addCommand("pull", () -> {
+            throw new AssertionError("Unused command was built");
+        });
+
+        CommandInterpretation first = router.interpret(new String[] {"push", "-d", "3"});
+        CommandInterpretation second = router.interpret(new String[] {"push", "-d", "4"});
+
+        assertEquals(1, built.get());
+        assertEquals("push", first.getCommand());
+        assertEquals(3, first.getInterpretation().getInt("depth", 0));
+        assertEquals(4, second.getInterpretation().getInt("depth", 0));
+    }
+
+    @Test
+    public void interpret_inheritsSharedFlags_beforeAndAfterCommand() {
+        CommandRouter router = new CommandRouter(
+                new FunctionFlag<>("config", "c", "Flag description", (arg) -> arg),
+                new Flag("verbose", "v", "Flag description")
+        );
+        router.addCommand("deploy", () -> new ParameterInterpreter(new IntFlag("replicas", "r", "Flag description")));
+
+        ParameterInterpretation interpretation = router.interpret(new String[] {"-c", "prod.yml", "deploy", "-r", "2", "-v"}).getInterpretation();
+
+        assertEquals("prod.yml", interpretation.get("config"));
+        assertTrue(interpretation.has("verbose"));
+        assertEquals(2, interpretation.getInt("replicas", 0));
+    }
+
+    @Test
+    public void interpret_skipsArgument_ofSharedFlagEndingCluster() {
+        CommandRouter router = new CommandRouter(
+                new Flag("verbose", "v", "Flag description"),
+                new IntFlag("threads", "t", "Flag description")
+        );
+        router.addCommand("build", () -> new ParameterInterpreter(new Flag("release", "r", "Flag description")));
+
+        CommandInterpretation command = router.interpret(new String[] {"-vt", "4", "build", "-r"});
+
+        assertEquals("build", command.getCommand());
+        assertTrue(command.getInterpretation().has("verbose"));
+        assertEquals(4, command.getInterpretation().getInt("threads", 0));
+        assertTrue(command.getInterpretation().has("release"));
+    }
+
+    @Test
+    public void interpret_findsCommand_afterClusterWithAttachedArgument() {
+        CommandRouter router = new CommandRouter(
+                new Flag("verbose", "v", "Flag description"),
+                new IntFlag("threads", "t", "Flag description")
+        );
+        router.addCommand("build", () -> new ParameterInterpreter());
+
+        CommandInterpretation command = router.interpret(new String[] {"-vt4", "build"});
+
+        assertEquals("build", command.getCommand());
+        assertEquals(4, command.getInterpretation().getInt("threads", 0));
+    }
+
+    @Test
+    public void interpret_keepsValueOfSharedFlag_whoseNameIsOverridden() {
+        CommandRouter router = new CommandRouter(new IntFlag("threads", "t", "Flag description"));
+        router.addCommand("build", () -> new ParameterInterpreter(new IntFlag("threads", "j", "Flag description")));
+
+        ParameterInterpretation shared = router.interpret(new String[] {"-t", "4", "build"}).getInterpretation();
+        ParameterInterpretation own = router.interpret(new String[] {"build", "-j", "2"}).getInterpretation();
+
+        assertTrue(shared.has("threads"));
+        assertEquals(4, shared.getInt("threads", 0));
+        assertEquals(2, own.getInt("threads", 0));
+    }
+
+    @Test
+    public void handles_ofCommandInterpreter_findFlags_afterSharedFlags() {
+        ParameterInterpreter deploy = new ParameterInterpreter(
+                new IntFlag("replicas", "r", "Flag description"),
+                new Flag("verbose", "v", "Flag description")
+        );
+        FlagHandle<Integer> replicas = deploy.handle("replicas");
+        FlagHandle<Object> verbose = deploy.handle("verbose");
+        CommandRouter router = new CommandRouter(
+                new Flag("verbose", "v", "Flag description"),
+                new IntFlag("level", "l", "Flag description")
+        );
+        router.addCommand("deploy", () -> deploy);
+
+        ParameterInterpretation interpretation = router.interpret(new String[] {"-l", "5", "deploy", "-r", "2", "-v"}).getInterpretation();
+
+        assertEquals(2, interpretation.getInt(replicas, 0));
+        assertEquals(Integer.valueOf(2), interpretation.get(replicas));
+        assertTrue(interpretation.has(verbose));
+    }
+
+    @Test
+    public void interpret_prefersFlagsOfCommand_overSharedFlags() {
+        CommandRouter router = new CommandRouter(
+                new SupplierFlag<>("verbose", "v", "Flag description", () -> "shared")
+        );
+        router.addCommand("log", () -> new ParameterInterpreter(
+                new SupplierFlag<>("version", "v", "Flag description", () -> "command")
+        ));
+
+        ParameterInterpretation interpretation = router.interpret(new String[] {"log", "-v"}).getInterpretation();
+
+        assertEquals("command", interpretation.get("version"));
+        assertFalse(interpretation.has("verbose"));
+    }
+
+    @Test
+    public void interpret_passesUnnamedArgumentsAfterCommand_toRequiredFlags() {
+        CommandRouter router = new CommandRouter();
+        router.addCommand("add", () -> new ParameterInterpreter(new FunctionFlag<>("path", "p", "Flag description", (arg) -> arg, true)));
+
+        assertEquals("file.txt", router.interpret(new String[] {"add", "file.txt"}).getInterpretation().get("path"));
+    }
+
+    @Test(expected = MissingArgumentException.class)
+    public void interpret_throwsMissingArgumentException_whenCommandIsMissing() {
+        CommandRouter router = new CommandRouter(new FunctionFlag<>("config", "c", "Flag description", (arg) -> arg));
+        router.addCommand("push", ParameterInterpreter::new);
+
+        router.interpret(new String[] {"-c", "push"});
+    }
+
+    @Test(expected = NonMatchingArgumentException.class)
+    public void interpret_throwsNonMatchingArgumentException_whenCommandDoesNotExist() {
+        CommandRouter router = new CommandRouter();
+        router.addCommand("push", ParameterInterpreter::new);
+
+        router.interpret(new String[] {"pusj"});
+    }
+
+    @Test
+    public void getCommands_returnsNamesInOrder() {
+        CommandRouter router = new CommandRouter();
+        router.addCommand("push", ParameterInterpreter::new);
+        router.addCommand("add", ParameterInterpreter::new);
+
+        assertEquals(Set.of("add", "push"), router.getCommands());
+        assertEquals("add", router.getCommands().iterator().next());
+    }
+
+}
@@ -0,0 +1,68 @@
+package net.rahka.parameters;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import static junit.framework.TestCase.*;
+
+public class CompletionTest {
+
+    private final ParameterInterpreter interpreter = new ParameterInterpreter(
+            new IntFlag("number", "n", "Flag description"),
+            new Flag("verbose", "v", "Flag description"),
+            new Flag("version", "V", "Flag description"),
+            new CollectionFlag<>("color", "c", "Flag description", Arrays.asList("red", "green", "gray")),
+            new MapFlag<>("mode", "m", "Flag description", Map.of("fast", 1, "faster", 2, "slow", 3))
+    );
+
+    @Test
+    public void complete_returnsMatchingFlags() {
+        assertEquals(Arrays.asList("--verbose", "--version"), interpreter.complete(new String[]{"--ver"}));
+        assertEquals(Arrays.asList("--color", "--mode", "--number", "--verbose", "--version", "-V", "-c", "-m", "-n", "-v"), interpreter.complete(new String[]{"-", "-"}));
+        assertEquals(Collections.singletonList("-n"), interpreter.complete(new String[]{"-n"}));
+    }
+
+    @Test
+    public void complete_returnsAllFlags_whenArgsAreEmpty() {
+        assertEquals(10, interpreter.complete(new String[0]).size());
+    }
+
+    @Test
+    public void complete_returnsMatchingOptions_whenFlagIsPending() {
+        assertEquals(Arrays.asList("gray", "green"), interpreter.complete(new String[]{"-v", "-c", "g"}));
+        assertEquals(Arrays.asList("fast", "faster"), interpreter.complete(new String[]{"--mode", "fa"}));
+        assertEquals(Arrays.asList("gray", "green", "red"), interpreter.complete(new String[]{"-c", ""}));
+    }
+
+    @Test
+    public void complete_returnsMatchingOptions_afterEquals() {
+        assertEquals(Collections.singletonList("--color=red"), interpreter.complete(new String[]{"--color=r"}));
+        assertEquals(Arrays.asList("-m=fast", "-m=faster"), interpreter.complete(new String[]{"-m=fa"}));
+        assertTrue(interpreter.complete(new String[]{"--number=4"}).isEmpty());
+    }
+
+    @Test
+    public void complete_returnsMatchingOptions_afterCluster() {
+        assertEquals(Arrays.asList("gray", "green"), interpreter.complete(new String[]{"-vc", "g"}));
+    }
+
+    @Test
+    public void complete_returnsNothing_whenPendingFlagHasNoOptions() {
+        assertTrue(interpreter.complete(new String[]{"-n", "-"}).isEmpty());
+    }
+
+    @Test
+    public void complete_returnsFlags_afterArgumentOfFlag() {
+        assertEquals(Arrays.asList("--verbose", "--version"), interpreter.complete(new String[]{"-n", "4", "--ver"}));
+        assertEquals(Arrays.asList("--verbose", "--version"), interpreter.complete(new String[]{"-c", "red", "--ver"}));
+    }
+
+    @Test
+    public void complete_returnsNothing_afterEndOfFlags() {
+        assertTrue(interpreter.complete(new String[]{"--", "--ver"}).isEmpty());
+    }
+
+}
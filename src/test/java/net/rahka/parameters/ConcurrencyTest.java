@@ -0,0 +1,115 @@
+package net.rahka.parameters;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static junit.framework.TestCase.*;
+
+public class ConcurrencyTest {
+
+    private static final int WRITERS = 4;
+    private static final int READERS = 4;
+    private static final int PAIRS_PER_WRITER = 500;
+
+    @Test
+    public void interpreter_interpretsConsistentSnapshots_whileFlagsAreAdded() throws Exception {
+        ParameterInterpreter interpreter = new ParameterInterpreter(
+                new IntFlag("base", "b", "Flag description", true)
+        );
+
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS + READERS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        AtomicInteger published = new AtomicInteger();
+        AtomicInteger interpretations = new AtomicInteger();
+
+        List<Future<?>> writers = new ArrayList<>();
+        for (int w = 0; w < WRITERS; w++) {
+            int writer = w;
+            writers.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < PAIRS_PER_WRITER; i++) {
+                    int pair = writer * PAIRS_PER_WRITER + i;
+                    interpreter.addFlags(
+                            new SupplierFlag<>("x" + pair, "x" + pair, "Flag description", () -> pair),
+                            new SupplierFlag<>("y" + pair, "y" + pair, "Flag description", () -> pair)
+                    );
+                    published.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+
+        List<Future<?>> readers = new ArrayList<>();
+        for (int r = 0; r < READERS; r++) {
+            readers.add(executor.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (writing.get()) {
+                    int pair = random.nextInt(WRITERS * PAIRS_PER_WRITER);
+                    ParameterInterpretation interpretation = interpreter.interpret(
+                            new String[]{"-x" + pair, "-y" + pair, "-b", "1"});
+
+                    // Both flags of a pair are added together, so a snapshot has either both or none of them
+                    assertEquals(interpretation.has("x" + pair), interpretation.has("y" + pair));
+                    assertEquals(1, interpretation.getInt("base", 0));
+                    interpretations.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> future : writers) {
+            future.get(1, TimeUnit.MINUTES);
+        }
+        writing.set(false);
+        for (Future<?> future : readers) {
+            future.get(1, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        assertEquals(WRITERS * PAIRS_PER_WRITER, published.get());
+        assertEquals(1 + WRITERS * PAIRS_PER_WRITER * 2, interpreter.getFlags().size());
+        assertTrue(interpretations.get() > 0);
+
+        for (int pair = 0; pair < WRITERS * PAIRS_PER_WRITER; pair++) {
+            ParameterInterpretation interpretation = interpreter.interpret(new String[]{"-x" + pair, "-y" + pair, "1"});
+            assertEquals(pair, (int) interpretation.get("x" + pair));
+            assertEquals(pair, (int) interpretation.get("y" + pair));
+        }
+    }
+
+    @Test
+    public void compiledInterpreter_interpretsFromManyThreads() throws Exception {
+        ParameterInterpreter interpreter = new ParameterInterpreter(
+                new IntFlag("int", "i", "Flag description", true),
+                new FunctionFlag<>("name", "n", "Flag description", String::toUpperCase)
+        ).compile();
+
+        ExecutorService executor = Executors.newFixedThreadPool(READERS);
+        List<Future<?>> readers = new ArrayList<>();
+        for (int r = 0; r < READERS; r++) {
+            readers.add(executor.submit(() -> {
+                for (int i = 0; i < 10000; i++) {
+                    ParameterInterpretation interpretation = interpreter.interpret(
+                            new String[]{Integer.toString(i), "--name", "erik" + i});
+                    assertEquals(i, interpretation.getInt("int", -1));
+                    assertEquals("ERIK" + i, interpretation.get("name"));
+                }
+                return null;
+            }));
+        }
+
+        for (Future<?> future : readers) {
+            future.get(1, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+    }
+
+}
@@ -0,0 +1,133 @@
+package net.rahka.parameters;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static junit.framework.TestCase.*;
+
+public class ConstraintTest {
+
+    private ParameterInterpreter interpreter() {
+        ParameterInterpreter interpreter = new ParameterInterpreter(
+                new Flag("tls", "t", "Flag description"),
+                new FunctionFlag<>("cert", "c", "Flag description", (arg) -> arg),
+                new FunctionFlag<>("key", "k", "Flag description", (arg) -> arg),
+                new Flag("json", "j", "Flag description"),
+                new Flag("yaml", "y", "Flag description"),
+                new Flag("xml", "x", "Flag description")
+        );
+        interpreter.addConstraints(
+                Constraint.requires("tls", "cert", "key"),
+                Constraint.excludes("json", "yaml"),
+                Constraint.atMostOne("yaml", "xml")
+        );
+        return interpreter;
+    }
+
+    @Test
+    public void interpret_succeeds_whenConstraintsHold() {
+        ParameterInterpreter interpreter = interpreter();
+
+        interpreter.interpret(new String[0]);
+        interpreter.interpret(new String[]{"-t", "-c", "a.pem", "-k", "a.key", "-j", "-x"});
+        interpreter.interpret(new String[]{"-c", "a.pem", "-y"});
+    }
+
+    @Test
+    public void interpret_reportsAllViolations() {
+        ParameterInterpreter interpreter = interpreter();
+
+        try {
+            interpreter.interpret(new String[]{"-t", "-c", "a.pem", "-j", "-y", "-x"});
+            fail();
+        } catch (ConstraintViolationException e) {
+            List<Constraint> constraints = interpreter.getConstraints();
+            assertEquals(constraints, e.getConstraints());
+            assertEquals("Violated constraints (tls requires (cert, key); json excludes (yaml); at most one of (yaml, xml))!", e.getMessage());
+        }
+    }
+
+    @Test
+    public void interpret_checksExactlyOne() {
+        ParameterInterpreter interpreter = new ParameterInterpreter(
+                new Flag("json", "j", "Flag description"),
+                new Flag("yaml", "y", "Flag description")
+        );
+        interpreter.addConstraint(Constraint.exactlyOne("json", "yaml"));
+
+        interpreter.interpret(new String[]{"-y"});
+        for (String[] args : Arrays.asList(new String[0], new String[]{"-j", "-y"})) {
+            try {
+                interpreter.interpret(args);
+                fail();
+            } catch (ConstraintViolationException e) {
+                assertEquals(Constraint.Kind.EXACTLY_ONE, e.getConstraints().get(0).getKind());
+            }
+        }
+    }
+
+    @Test
+    public void interpret_checksConstraints_beyondFirstWord() {
+        Flag[] flags = new Flag[130];
+        for (int i = 0; i < flags.length; i++) {
+            flags[i] = new Flag("flag" + i, "f" + i, "Flag description");
+        }
+        ParameterInterpreter interpreter = new ParameterInterpreter(flags);
+        interpreter.addConstraint(Constraint.requires("flag1", "flag70", "flag129"));
+
+        interpreter.interpret(new String[]{"-f1", "-f70", "-f129"});
+        try {
+            interpreter.interpret(new String[]{"-f1", "-f129"});
+            fail();
+        } catch (ConstraintViolationException e) {
+            //Expected
+        }
+    }
+
+    @Test
+    public void addConstraint_throws_whenFlagDoesNotExist() {
+        ParameterInterpreter interpreter = interpreter();
+
+        try {
+            interpreter.addConstraint(Constraint.requires("tls", "ca"));
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals("No flag named (ca)!", e.getMessage());
+        }
+
+        assertEquals(3, interpreter.getConstraints().size());
+    }
+
+    @Test
+    public void interpretCollecting_reportsViolationsAsDiagnostics() {
+        CollectedInterpretation result = interpreter().interpretCollecting(new String[]{"-j", "-y"});
+
+        assertFalse(result.isSuccess());
+        assertEquals(1, result.getDiagnostics().size());
+        Diagnostic diagnostic = result.getDiagnostics().get(0);
+        assertEquals(Diagnostic.Kind.CONSTRAINT_VIOLATION, diagnostic.getKind());
+        assertEquals(Constraint.Kind.EXCLUDES, diagnostic.getConstraint().getKind());
+        assertEquals("Violated constraints (json excludes (yaml))!", diagnostic.getMessage());
+    }
+
+    @Test
+    public void constraints_areKept_byCompiledAndIncrementalInterpreters() {
+        ParameterInterpreter interpreter = interpreter().compile();
+
+        try {
+            interpreter.interpret(new String[]{"-j", "-y"});
+            fail();
+        } catch (ConstraintViolationException e) {
+            //Expected
+        }
+
+        IncrementalInterpreter incremental = interpreter.incremental();
+        incremental.accept("-j");
+        assertTrue(incremental.isComplete());
+        incremental.accept("-y");
+        assertFalse(incremental.isComplete());
+    }
+
+}
@@ -2,12 +2,13 @@ package net.rahka.parameters;
 
 import org.junit.Test;
 
-import java.util.Arrays;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
-import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.*;
 import static org.mockito.Mockito.*;
 
 public class FlagTest {
@@ -145,6 +146,361 @@ public class FlagTest {
         assertEquals(map.get(obj4), interpretation.get("Test name 2"));
     }
 
+    @Test
+    public void collectionFlag_mapsFirstMatchingItem_whenItemsHaveEqualStrings() {
+        List<TestObj> collection = Arrays.asList(
+                new TestObj("test1"),
+                new TestObj("test2"),
+                new TestObj("test2"));
+
+        ParameterInterpreter interpreter = new ParameterInterpreter(
+                new CollectionFlag<>("Test name", "t", "Test description", collection)
+        );
+
+        ParameterInterpretation interpretation = interpreter.interpret(new String[]{"-t", "test2"});
+        assertSame(collection.get(1), interpretation.get("Test name"));
+    }
+
+    @Test
+    public void collectionFlag_mapsItems_whenIgnoringCase() {
+        List<TestObj> collection = Arrays.asList(
+                new TestObj("Test1"),
+                new TestObj("TEST2"));
+
+        ParameterInterpreter interpreter = new ParameterInterpreter(
+                new CollectionFlag<>("Test name", "t", "Test description", collection, false, true)
+        );
+
+        ParameterInterpretation interpretation = interpreter.interpret(new String[]{"-t", "test2"});
+        assertSame(collection.get(1), interpretation.get("Test name"));
+    }
+
+    @Test
+    public void mapFlag_mapsNullValues() {
+        Map<TestObj, Integer> map = new HashMap<>();
+        map.put(new TestObj("test1"), 1);
+        map.put(new TestObj("test2"), null);
+
+        ParameterInterpreter interpreter = new ParameterInterpreter(
+                new MapFlag<>("Test name", "t", "Test description", map)
+        );
+
+        ParameterInterpretation interpretation = interpreter.interpret(new String[]{"-t", "test2"});
+        assertTrue(interpretation.has("Test name"));
+        assertNull(interpretation.get("Test name"));
+    }
+
+    @Test
+    public void mapFlag_mapsItems_whenIgnoringCase() {
+        Map<TestObj, Integer> map = new HashMap<>();
+        map.put(new TestObj("Test1"), 1);
+        map.put(new TestObj("TEST2"), 2);
+
+        ParameterInterpreter interpreter = new ParameterInterpreter(
+                new MapFlag<>("Test name", "t", "Test description", map, false, true)
+        );
+
+        ParameterInterpretation interpretation = interpreter.interpret(new String[]{"-t", "test1"});
+        assertEquals(1, (int) interpretation.get("Test name"));
+    }
+
+    @Test
+    public void primitiveFlags_parseArguments() {
+        ParameterInterpreter interpreter = new ParameterInterpreter(
+                new IntFlag("int", "i", "Test description"),
+                new LongFlag("long", "l", "Test description"),
+                new DoubleFlag("double", "d", "Test description"),
+                new BooleanFlag("boolean", "b", "Test description")
+        );
+
+        ParameterInterpretation interpretation = interpreter.interpret(
+                new String[]{"-i", "-42", "-l", "9000000000", "-d", "2.5", "-b", "TRUE"});
+
+        assertEquals(-42, interpretation.getInt("int", 0));
+        assertEquals(9000000000L, interpretation.getLong("long", 0));
+        assertEquals(2.5, interpretation.getDouble("double", 0));
+        assertTrue(interpretation.getBoolean("boolean", false));
+    }
+
+    @Test
+    public void primitiveFlags_returnAlternateValues_whenNotPresent() {
+        ParameterInterpreter interpreter = new ParameterInterpreter(
+                new IntFlag("int", "i", "Test description"),
+                new BooleanFlag("boolean", "b", "Test description")
+        );
+
+        ParameterInterpretation interpretation = interpreter.interpret(new String[0]);
+
+        assertEquals(7, interpretation.getInt("int", 7));
+        assertEquals(7, interpretation.getInt("nonexisting", 7));
+        assertTrue(interpretation.getBoolean("boolean", true));
+    }
+
+    @Test
+    public void primitiveFlags_returnBoxedValues_fromGet() {
+        ParameterInterpreter interpreter = new ParameterInterpreter(
+                new IntFlag("int", "i", "Test description"),
+                new DoubleFlag("double", "d", "Test description")
+        );
+
+        ParameterInterpretation interpretation = interpreter.interpret(new String[]{"-i", "4", "-d", "0.5"});
+
+        assertEquals(Integer.valueOf(4), interpretation.get("int"));
+        assertEquals(Double.valueOf(0.5), interpretation.get("double", 1.0));
+        assertEquals(0.5, interpretation.getDouble(interpreter.<Double>handle("double"), 1.0));
+    }
+
+    @Test
+    public void primitiveAccessors_unboxValues_ofOtherFlags() {
+        ParameterInterpreter interpreter = new ParameterInterpreter(
+                new FunctionFlag<>("int", "i", "Test description", Integer::parseInt),
+                new IntFlag("int2", "i2", "Test description")
+        );
+
+        ParameterInterpretation interpretation = interpreter.interpret(new String[]{"-i", "4", "-i2", "5"});
+
+        assertEquals(4, interpretation.getInt("int", 0));
+        assertEquals(4.0, interpretation.getDouble("int", 0));
+        assertEquals(5L, interpretation.getLong("int2", 0));
+    }
+
+    @Test(expected = ClassCastException.class)
+    public void getBoolean_throwsClassCastException_forIntFlag() {
+        ParameterInterpreter interpreter = new ParameterInterpreter(
+                new IntFlag("int", "i", "Test description")
+        );
+
+        interpreter.interpret(new String[]{"-i", "4"}).getBoolean("int", false);
+    }
+
+    @Test(expected = ClassCastException.class)
+    public void getInt_throwsClassCastException_forLongFlag() {
+        ParameterInterpreter interpreter = new ParameterInterpreter(
+                new LongFlag("long", "l", "Test description")
+        );
+
+        interpreter.interpret(new String[]{"-l", "5000000000"}).getInt("long", 0);
+    }
+
+    @Test
+    public void integerAccessors_throwClassCastException_forDoubleFlag() {
+        ParameterInterpreter interpreter = new ParameterInterpreter(
+                new DoubleFlag("double", "d", "Test description")
+        );
+        ParameterInterpretation interpretation = interpreter.interpret(new String[]{"-d", "3.9"});
+
+        try {
+            interpretation.getInt("double", 0);
+            fail();
+        } catch (ClassCastException expected) {
+        }
+
+        try {
+            interpretation.getLong("double", 0);
+            fail();
+        } catch (ClassCastException expected) {
+        }
+
+        assertEquals(3.9, interpretation.getDouble("double", 0));
+    }
+
+    @Test(expected = ExceptionCaughtException.class)
+    public void intFlag_throwsExceptionCaughtException_whenArgumentIsNotANumber() {
+        ParameterInterpreter interpreter = new ParameterInterpreter(
+                new IntFlag("int", "i", "Test description")
+        );
+
+        interpreter.interpret(new String[]{"-i", "four"});
+    }
+
+    @Test
+    public void lazyFunctionFlag_runsParseMethod_onceOnFirstGet() throws Exception {
+        FunctionFlag.Function<Integer> function = mock(FunctionFlag.Function.class);
+        when(function.parse("4")).thenReturn(4);
+
+        ParameterInterpreter interpreter = new ParameterInterpreter(
+                new LazyFunctionFlag<>("Test name", "t", "Test description", function)
+        );
+
+        ParameterInterpretation interpretation = interpreter.interpret(new String[]{"-t", "4"});
+        assertTrue(interpretation.has("Test name"));
+        verify(function, never()).parse(anyString());
+
+        assertEquals(4, (int) interpretation.get("Test name"));
+        assertEquals(4, interpretation.getInt("Test name", 0));
+        verify(function, times(1)).parse("4");
+    }
+
+    @Test
+    public void lazyFunctionFlag_runsParseMethod_once_whenRetrievedFromManyThreads() throws Exception {
+        AtomicInteger parses = new AtomicInteger();
+        ParameterInterpreter interpreter = new ParameterInterpreter(
+                new LazyFunctionFlag<>("Test name", "t", "Test description", argument -> {
+                    parses.incrementAndGet();
+                    Thread.sleep(10);
+                    return argument.length();
+                })
+        );
+
+        ParameterInterpretation interpretation = interpreter.interpret(new String[]{"-t", "four"});
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<Integer>> values = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            values.add(executor.submit(() -> interpretation.<Integer>get("Test name")));
+        }
+        for (Future<Integer> value : values) {
+            assertEquals(4, (int) value.get());
+        }
+        executor.shutdown();
+
+        assertEquals(1, parses.get());
+    }
+
+    @Test(expected = ExceptionCaughtException.class)
+    public void lazyFunctionFlag_throwsExceptionCaughtException_onGet_whenParsingFails() {
+        ParameterInterpreter interpreter = new ParameterInterpreter(
+                new LazyFunctionFlag<>("Test name", "t", "Test description", Integer::parseInt)
+        );
+
+        ParameterInterpretation interpretation = interpreter.interpret(new String[]{"-t", "four"});
+        interpretation.get("Test name");
+    }
+
+    @Test
+    public void intListFlag_accumulatesDelimitedAndRepeatedArguments() {
+        ParameterInterpreter interpreter = new ParameterInterpreter(
+                new IntListFlag("Test name", "t", "Test description")
+        );
+
+        ParameterInterpretation interpretation = interpreter.interpret(new String[]{"-t", "1,-2,+3", "-t", "2147483647,-2147483648"});
+        IntList list = interpretation.get("Test name");
+
+        assertEquals(5, list.size());
+        assertTrue(Arrays.equals(new int[]{1, -2, 3, Integer.MAX_VALUE, Integer.MIN_VALUE}, list.toArray()));
+    }
+
+    @Test
+    public void intListFlag_parsesLongList_withCustomDelimiter() {
+        ParameterInterpreter interpreter = new ParameterInterpreter(
+                new IntListFlag("Test name", "t", "Test description", ':', false)
+        );
+
+        StringBuilder arg = new StringBuilder();
+        for (int i = 0; i < 100000; i++) {
+            arg.append(i).append(':');
+        }
+        arg.setLength(arg.length() - 1);
+
+        IntList list = interpreter.interpret(new String[]{"-t", arg.toString()}).get("Test name");
+
+        assertEquals(100000, list.size());
+        assertEquals(99999, list.get(99999));
+        assertEquals((long) 99999 * 100000 / 2, list.stream().asLongStream().sum());
+    }
+
+    @Test
+    public void intListFlag_throwsExceptionCaughtException_whenIntIsInvalid() {
+        ParameterInterpreter interpreter = new ParameterInterpreter(
+                new IntListFlag("Test name", "t", "Test description")
+        );
+
+        for (String arg : new String[]{"1,,2", "1,2,", "1,x", "2147483648", "-", ""}) {
+            try {
+                interpreter.interpret(new String[]{"-t", arg});
+                fail("No exception for: " + arg);
+            } catch (ExceptionCaughtException e) {
+                assertTrue(e.getCause() instanceof NumberFormatException);
+            }
+        }
+    }
+
+    @Test
+    public void intListFlag_isLeftOut_whenFirstArgumentFails() {
+        ParameterInterpreter interpreter = new ParameterInterpreter(
+                new IntListFlag("ids", "i", "Test description")
+        );
+
+        CollectedInterpretation result = interpreter.interpretCollecting(new String[]{"-i", "1,x"});
+
+        assertEquals(Diagnostic.Kind.PARSE_FAILURE, result.getDiagnostics().get(0).getKind());
+        assertFalse(result.getInterpretation().has("ids"));
+    }
+
+    @Test
+    public void intListFlag_keepsEarlierArguments_whenLaterArgumentFails() {
+        ParameterInterpreter interpreter = new ParameterInterpreter(
+                new IntListFlag("ids", "i", "Test description")
+        );
+        IncrementalInterpreter incremental = interpreter.incremental();
+
+        incremental.accept("-i");
+        incremental.accept("1,2");
+        incremental.accept("-i");
+        try {
+            incremental.accept("3,x");
+            fail();
+        } catch (ExceptionCaughtException e) {
+            //Expected
+        }
+        incremental.accept("-i");
+        incremental.accept("4");
+
+        assertTrue(Arrays.equals(new int[]{1, 2, 4}, incremental.finish().<IntList>get("ids").toArray()));
+    }
+
+    @Test
+    public void listFlag_keepsEarlierArguments_whenLaterArgumentFails() {
+        ParameterInterpreter interpreter = new ParameterInterpreter(
+                new ListFlag<>("numbers", "l", "Test description", ',', Integer::valueOf, false)
+        );
+        ParameterInterpretation interpretation = interpreter.interpret(new String[]{"-l", "1"}, null);
+
+        try {
+            interpreter.interpret(new String[]{"-l", "1,2", "-l", "3,x"}, interpretation);
+            fail();
+        } catch (ExceptionCaughtException e) {
+            //Expected
+        }
+        assertEquals(Arrays.asList(1, 2), interpretation.get("numbers"));
+
+        CollectedInterpretation result = interpreter.interpretCollecting(new String[]{"-l", "x,1"});
+        assertFalse(result.getInterpretation().has("numbers"));
+    }
+
+    @Test
+    public void listFlag_collectsRepeatedArguments() {
+        ParameterInterpreter interpreter = new ParameterInterpreter(
+                new ListFlag<>("Test name", "t", "Test description", TestObj::new)
+        );
+
+        List<TestObj> list = interpreter.interpret(new String[]{"-t", "a,b", "-t", "c"}).get("Test name");
+
+        assertEquals(2, list.size());
+        assertEquals("a,b", list.get(0).toString());
+        assertEquals("c", list.get(1).toString());
+    }
+
+    @Test
+    public void listFlag_splitsArguments_whenDelimiterIsGiven() {
+        ParameterInterpreter interpreter = new ParameterInterpreter(
+                new ListFlag<>("Test name", "t", "Test description", ',', String::trim, false)
+        );
+
+        List<String> list = interpreter.interpret(new String[]{"-t", "a, b,", "-t", "c"}).get("Test name");
+
+        assertEquals(Arrays.asList("a", "b", "", "c"), list);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void listFlag_returnsUnmodifiableList() {
+        ParameterInterpreter interpreter = new ParameterInterpreter(
+                new ListFlag<>("Test name", "t", "Test description", (arg) -> arg)
+        );
+
+        interpreter.interpret(new String[]{"-t", "a"}).<List<String>>get("Test name").add("b");
+    }
+
     private static class TestObj {
 
         private final String argument;
@@ -0,0 +1,150 @@
+package net.rahka.parameters;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static junit.framework.TestCase.*;
+
+public class IncrementalTest {
+
+    @Test
+    public void incremental_keepsStateBetweenTokens() {
+        ParameterInterpreter interpreter = new ParameterInterpreter(
+                new IntFlag("number", "n", "Flag description"),
+                new FunctionFlag<>("first", "f", "Flag description", (arg) -> arg, true),
+                new FunctionFlag<>("second", "s", "Flag description", (arg) -> arg, true)
+        );
+        IncrementalInterpreter incremental = interpreter.incremental();
+
+        assertFalse(incremental.isComplete());
+        assertEquals("first", incremental.getNextRequired().getName());
+
+        incremental.accept("-n");
+        assertEquals("number", incremental.getPendingFlag().getName());
+
+        incremental.accept("4");
+        assertNull(incremental.getPendingFlag());
+
+        incremental.accept("a");
+        assertEquals("second", incremental.getNextRequired().getName());
+        assertEquals(1, incremental.getMissingRequired().size());
+
+        incremental.accept("b");
+        assertTrue(incremental.isComplete());
+
+        ParameterInterpretation interpretation = incremental.finish();
+        assertEquals(4, interpretation.getInt("number", 0));
+        assertEquals("a", interpretation.get("first"));
+        assertEquals("b", interpretation.get("second"));
+    }
+
+    @Test
+    public void snapshot_isNotChangedByLaterTokens() {
+        ParameterInterpreter interpreter = new ParameterInterpreter(
+                new IntFlag("number", "n", "Flag description"),
+                new IntListFlag("ids", "i", "Flag description"),
+                new ListFlag<>("names", "a", "Flag description", (arg) -> arg)
+        );
+        IncrementalInterpreter incremental = interpreter.incremental();
+
+        incremental.accept("-n");
+        incremental.accept("1");
+        incremental.accept("-i");
+        incremental.accept("1,2");
+        incremental.accept("-a");
+        incremental.accept("x");
+        ParameterInterpretation first = incremental.snapshot();
+
+        incremental.accept("-n");
+        incremental.accept("2");
+        incremental.accept("-i");
+        incremental.accept("3");
+        incremental.accept("-a");
+        incremental.accept("y");
+        ParameterInterpretation second = incremental.snapshot();
+
+        assertEquals(1, first.getInt("number", 0));
+        assertEquals(2, first.<IntList>get("ids").size());
+        assertEquals(List.of("x"), first.get("names"));
+        assertEquals(2, second.getInt("number", 0));
+        assertEquals(3, second.<IntList>get("ids").size());
+        assertEquals(List.of("x", "y"), second.get("names"));
+    }
+
+    @Test
+    public void snapshots_afterEveryToken_keepTheirArguments() {
+        ParameterInterpreter interpreter = new ParameterInterpreter(new IntListFlag("ids", "i", "Flag description"));
+        interpreter.addPositional(Positional.variadic("files", "Positional description", 0));
+        IncrementalInterpreter incremental = interpreter.incremental();
+
+        List<ParameterInterpretation> snapshots = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            incremental.accept(new StringBuilder("file").append(i));
+            incremental.accept("-i");
+            incremental.accept(Integer.toString(i));
+            snapshots.add(incremental.snapshot());
+        }
+
+        for (int i = 0; i < snapshots.size(); i++) {
+            ParameterInterpretation snapshot = snapshots.get(i);
+            assertEquals(i + 1, snapshot.getPositionals().size());
+            assertEquals("file" + i, snapshot.getPositionals().get(i));
+            assertEquals(i + 1, snapshot.<IntList>get("ids").size());
+            assertEquals(i, snapshot.<IntList>get("ids").get(i));
+        }
+    }
+
+    @Test
+    public void copiesOfList_appendIndependently() {
+        IntList list = new IntList();
+        list.add(1);
+        IntList first = list.copy();
+        IntList second = list.copy();
+
+        first.add(2);
+        second.add(3);
+        list.add(4);
+
+        assertEquals("[1, 2]", first.toString());
+        assertEquals("[1, 3]", second.toString());
+        assertEquals("[1, 4]", list.toString());
+    }
+
+    @Test
+    public void snapshot_returnsSameInterpretation_whenNoTokenWasAccepted() {
+        IncrementalInterpreter incremental = new ParameterInterpreter(new IntFlag("number", "n", "Flag description")).incremental();
+        incremental.accept("-n");
+        incremental.accept("1");
+
+        assertSame(incremental.snapshot(), incremental.snapshot());
+    }
+
+    @Test
+    public void incremental_continues_afterTokenThrows() {
+        IncrementalInterpreter incremental = new ParameterInterpreter(new IntFlag("number", "n", "Flag description")).incremental();
+
+        incremental.accept("-n");
+        try {
+            incremental.accept("x");
+            fail();
+        } catch (ExceptionCaughtException e) {
+            //Expected
+        }
+        assertFalse(incremental.snapshot().has("number"));
+
+        incremental.accept("-n");
+        incremental.accept("5");
+        assertEquals(5, incremental.finish().getInt("number", 0));
+    }
+
+    @Test(expected = MissingArgumentException.class)
+    public void finish_throwsMissingArgumentException_whenFlagIsPending() {
+        IncrementalInterpreter incremental = new ParameterInterpreter(new IntFlag("number", "n", "Flag description")).incremental();
+        incremental.accept("-n");
+
+        incremental.finish();
+    }
+
+}
@@ -2,6 +2,13 @@ package net.rahka.parameters;
 
 import org.junit.Test;
 
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
 import static junit.framework.TestCase.*;
 
 public class InterpreterTest {
@@ -157,6 +164,409 @@ public class InterpreterTest {
         assertTrue(interpretation.has("number"));
     }
 
+    @Test
+    public void interpreter_parsesFlagsByName_whenPrefixIsRepeated() {
+        interpreter = new ParameterInterpreter(
+                new FunctionFlag<>("int", "i", "Flag description", Integer::parseInt),
+                new Flag("simple", "s", "Flag description")
+        );
+
+        ParameterInterpretation interpretation = interpreter.interpret(new String[]{"--int", "4", "--simple"});
+
+        assertEquals(4, (int) interpretation.get("int"));
+        assertTrue(interpretation.has("simple"));
+    }
+
+    @Test
+    public void interpreter_parsesFlags_withCustomPrefix() {
+        interpreter = new ParameterInterpreter("/",
+                new FunctionFlag<>("int", "i", "Flag description", Integer::parseInt),
+                new FunctionFlag<>("double", "d", "Flag description", Double::parseDouble)
+        );
+
+        ParameterInterpretation interpretation = interpreter.interpret(new String[]{"/i", "4", "//double", "2.5", "-d"});
+
+        assertEquals(4, (int) interpretation.get("int"));
+        assertEquals(2.5, interpretation.get("double"));
+    }
+
+    @Test
+    public void compile_returnsInterpreter_thatDoesNotSeeLaterFlags() {
+        interpreter = new ParameterInterpreter(
+                new SupplierFlag<>("number", "n", "Flag description", () -> 4)
+        );
+
+        ParameterInterpreter compiled = interpreter.compile();
+        interpreter.addFlag(new SupplierFlag<>("name", "a", "Flag description", () -> 1));
+
+        ParameterInterpretation interpretation = compiled.interpret(new String[]{"-n", "-a"});
+
+        assertTrue(interpretation.has("number"));
+        assertFalse(interpretation.has("name"));
+        assertTrue(interpreter.interpret(new String[]{"-a"}).has("name"));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void compile_returnsInterpreter_thatRejectsNewFlags() {
+        interpreter = new ParameterInterpreter(
+                new SupplierFlag<>("number", "n", "Flag description", () -> 4)
+        );
+
+        interpreter.compile().addFlag(new SupplierFlag<>("name", "a", "Flag description", () -> 1));
+    }
+
+    @Test
+    public void interpretation_get_byHandle() {
+        interpreter = new ParameterInterpreter(
+                new SupplierFlag<>("number", "n", "Flag description", () -> 4),
+                new SupplierFlag<>("name", "a", "Flag description", () -> "Erik")
+        );
+
+        FlagHandle<Integer> number = interpreter.handle("number");
+        FlagHandle<String> name = interpreter.handle("name");
+
+        ParameterInterpretation interpretation = interpreter.interpret(new String[]{"-n"});
+
+        assertTrue(interpretation.has(number));
+        assertEquals(4, (int) interpretation.get(number));
+        assertFalse(interpretation.has(name));
+        assertNull(interpretation.get(name));
+        assertEquals("Nils", interpretation.get(name, "Nils"));
+    }
+
+    @Test
+    public void interpretation_get_byHandle_fromLaterFlag() {
+        interpreter = new ParameterInterpreter(
+                new SupplierFlag<>("number", "n", "Flag description", () -> 4)
+        );
+
+        ParameterInterpretation interpretation = interpreter.interpret(new String[]{"-n"});
+        interpreter.addFlag(new SupplierFlag<>("name", "a", "Flag description", () -> "Erik"));
+
+        FlagHandle<String> name = interpreter.handle("name");
+
+        assertFalse(interpretation.has(name));
+        assertEquals("Nils", interpretation.get(name, "Nils"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void handle_throwsIllegalArgumentException_whenFlagDoesNotExist() {
+        interpreter = new ParameterInterpreter(
+                new SupplierFlag<>("number", "n", "Flag description", () -> 4)
+        );
+
+        interpreter.handle("n");
+    }
+
+    @Test
+    public void interpretation_has_ignoresShortHandNames() {
+        interpreter = new ParameterInterpreter(
+                new SupplierFlag<>("number", "n", "Flag description", () -> 4)
+        );
+
+        ParameterInterpretation interpretation = interpreter.interpret(new String[]{"-n"});
+
+        assertTrue(interpretation.has("number"));
+        assertFalse(interpretation.has("n"));
+    }
+
+    @Test
+    public void interpreter_parsesCharSequenceTokens() {
+        interpreter = new ParameterInterpreter(
+                new IntFlag("int", "i", "Flag description", true),
+                new FunctionFlag<>("name", "n", "Flag description", String::toUpperCase)
+        );
+
+        ParameterInterpretation interpretation = interpreter.interpret(new CharSequence[]{
+                new StringBuilder("--name"), new StringBuilder("erik"), new StringBuilder("4")});
+
+        assertEquals(4, interpretation.getInt("int", 0));
+        assertEquals("ERIK", interpretation.get("name"));
+    }
+
+    @Test
+    public void interpreter_parsesTokensOfCharArray_inPlace() {
+        char[] source = "-n erik -i 42 -d 0.5".toCharArray();
+        int[] starts = {0, 3, 8, 11, 14, 17};
+        int[] ends = {2, 7, 10, 13, 16, 20};
+
+        FunctionFlag.SequenceFunction<String> parser = argument -> {
+            assertFalse(argument instanceof String);
+            return argument.toString();
+        };
+
+        interpreter = new ParameterInterpreter(
+                new FunctionFlag<>("name", "n", "Flag description", parser),
+                new IntFlag("int", "i", "Flag description"),
+                new DoubleFlag("double", "d", "Flag description")
+        );
+
+        ParameterInterpretation interpretation = interpreter.interpret(source, starts, ends);
+
+        assertEquals("erik", interpretation.get("name"));
+        assertEquals(42, interpretation.getInt("int", 0));
+        assertEquals(0.5, interpretation.getDouble("double", 0));
+    }
+
+    @Test(expected = MissingArgumentException.class)
+    public void interpret_throwsMissingArgumentException_whenLastTokenOfBufferIsFlag() {
+        interpreter = new ParameterInterpreter(
+                new IntFlag("int", "i", "Flag description")
+        );
+
+        interpreter.interpret(CharBuffer.wrap("--int"), new int[]{0}, new int[]{5});
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void interpret_throwsIndexOutOfBoundsException_whenTokenIsOutsideOfSource() {
+        interpreter = new ParameterInterpreter(
+                new IntFlag("int", "i", "Flag description")
+        );
+
+        interpreter.interpret("-i 4", new int[]{0, 3}, new int[]{2, 5});
+    }
+
+    @Test
+    public void interpretAll_returnsResultPerArguments_withoutStoppingAtExceptions() {
+        interpreter = new ParameterInterpreter(
+                new IntFlag("int", "i", "Flag description", true)
+        );
+
+        List<InterpretationResult> results = interpreter.interpretAll(Stream.of(
+                new String[]{"-i", "1"},
+                new String[]{"-i", "one"},
+                new String[]{},
+                new String[]{"-i", "4"}
+        )).collect(Collectors.toList());
+
+        assertEquals(4, results.size());
+        assertEquals(1, results.get(0).getInterpretation().getInt("int", 0));
+        assertTrue(results.get(1).getException() instanceof ExceptionCaughtException);
+        assertTrue(results.get(2).getException() instanceof MissingFlagException);
+        assertTrue(results.get(3).isSuccess());
+        assertEquals(4, results.get(3).getInterpretation().getInt("int", 0));
+    }
+
+    @Test
+    public void interpretAll_keepsOrder_whenInterpretingInParallel() {
+        interpreter = new ParameterInterpreter(
+                new IntFlag("int", "i", "Flag description", true)
+        );
+
+        List<String[]> args = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            args.add(new String[]{"-i", (i % 100 == 0) ? "invalid" : Integer.toString(i)});
+        }
+
+        List<InterpretationResult> results = interpreter.interpretAll(args, true, true).collect(Collectors.toList());
+
+        assertEquals(args.size(), results.size());
+        for (int i = 0; i < args.size(); i++) {
+            assertSame(args.get(i), results.get(i).getArgs());
+            if (i % 100 == 0) {
+                assertFalse(results.get(i).isSuccess());
+            } else {
+                assertEquals(i, results.get(i).getInterpretation().getInt("int", -1));
+            }
+        }
+    }
+
+    @Test
+    public void interpreter_parsesCommandLine() {
+        interpreter = new ParameterInterpreter(
+                new IntFlag("int", "i", "Flag description", true),
+                new FunctionFlag<>("name", "n", "Flag description", argument -> argument),
+                new FunctionFlag<>("path", "p", "Flag description", argument -> argument),
+                new FunctionFlag<>("empty", "e", "Flag description", argument -> argument),
+                new Flag("simple", "s", "Flag description")
+        );
+
+        ParameterInterpretation interpretation = interpreter.interpret(
+                "  4 --name \"Erik \\\"the\\\" Nilsen\"\t-p 'C:\\dir\\my file' -e '' -s ");
+
+        assertEquals(4, interpretation.getInt("int", 0));
+        assertEquals("Erik \"the\" Nilsen", interpretation.get("name"));
+        assertEquals("C:\\dir\\my file", interpretation.get("path"));
+        assertEquals("", interpretation.get("empty"));
+        assertTrue(interpretation.has("simple"));
+    }
+
+    @Test
+    public void interpreter_parsesCommandLine_endingWithArgument() {
+        interpreter = new ParameterInterpreter(
+                new FunctionFlag<>("name", "n", "Flag description", argument -> argument)
+        );
+
+        assertEquals("Erik", interpreter.interpret("-n Erik").get("name"));
+        assertEquals("Erik Nilsen", interpreter.interpret("-n Erik' Nilsen'").get("name"));
+    }
+
+    @Test(expected = MissingArgumentException.class)
+    public void interpret_throwsMissingArgumentException_whenCommandLineEndsWithFlag() {
+        interpreter = new ParameterInterpreter(
+                new FunctionFlag<>("name", "n", "Flag description", argument -> argument)
+        );
+
+        interpreter.interpret("--name");
+    }
+
+    @Test(expected = ParameterException.class)
+    public void interpret_throwsParameterException_whenCommandLineHasUnclosedQuote() {
+        interpreter = new ParameterInterpreter(
+                new FunctionFlag<>("name", "n", "Flag description", argument -> argument)
+        );
+
+        interpreter.interpret("-n \"Erik");
+    }
+
+    @Test
+    public void interpret_splitsNameAndValue_atEquals() {
+        interpreter = new ParameterInterpreter(
+                new IntFlag("threads", "t", "Flag description"),
+                new FunctionFlag<>("name", "n", "Flag description", (arg) -> arg)
+        );
+
+        ParameterInterpretation interpretation = interpreter.interpret(new String[]{"--threads=8", "-n=a=b"});
+
+        assertEquals(8, interpretation.getInt("threads", 0));
+        assertEquals("a=b", interpretation.get("name"));
+    }
+
+    @Test
+    public void interpret_acceptsEmptyValue_afterEquals() {
+        interpreter = new ParameterInterpreter(
+                new FunctionFlag<>("name", "n", "Flag description", (arg) -> arg)
+        );
+
+        assertEquals("", interpreter.interpret(new String[]{"--name="}).get("name"));
+    }
+
+    @Test(expected = ParameterException.class)
+    public void interpret_throwsParameterException_whenValueIsGivenToFlagWithoutArgument() {
+        interpreter = new ParameterInterpreter(
+                new Flag("verbose", "v", "Flag description")
+        );
+
+        interpreter.interpret(new String[]{"--verbose=true"});
+    }
+
+    @Test
+    public void interpret_prefersExactName_overEqualsAndCluster() {
+        interpreter = new ParameterInterpreter(
+                new SupplierFlag<>("a=b", "ab", "Flag description", () -> "exact"),
+                new Flag("a", "a", "Flag description"),
+                new Flag("b", "b", "Flag description")
+        );
+
+        ParameterInterpretation interpretation = interpreter.interpret(new String[]{"--a=b", "-ab"});
+
+        assertEquals("exact", interpretation.get("a=b"));
+        assertFalse(interpretation.has("a"));
+        assertFalse(interpretation.has("b"));
+    }
+
+    @Test
+    public void interpret_expandsClusterOfShortNames() {
+        interpreter = new ParameterInterpreter(
+                new Flag("all", "a", "Flag description"),
+                new Flag("verbose", "v", "Flag description"),
+                new IntFlag("number", "n", "Flag description"),
+                new IntFlag("required", "r", "Flag description", true)
+        );
+
+        ParameterInterpretation interpretation = interpreter.interpret(new String[]{"-avn", "5", "7"});
+
+        assertTrue(interpretation.has("all"));
+        assertTrue(interpretation.has("verbose"));
+        assertEquals(5, interpretation.getInt("number", 0));
+        assertEquals(7, interpretation.getInt("required", 0));
+    }
+
+    @Test
+    public void interpret_usesRestOfCluster_asArgument() {
+        interpreter = new ParameterInterpreter(
+                new Flag("verbose", "v", "Flag description"),
+                new IntFlag("number", "n", "Flag description")
+        );
+
+        ParameterInterpretation interpretation = interpreter.interpret(new String[]{"-vn42"});
+
+        assertTrue(interpretation.has("verbose"));
+        assertEquals(42, interpretation.getInt("number", 0));
+    }
+
+    @Test
+    public void interpret_ignoresCluster_whenAnyCharacterIsUnknown() {
+        interpreter = new ParameterInterpreter(
+                new Flag("all", "a", "Flag description"),
+                new Flag("verbose", "v", "Flag description")
+        );
+
+        ParameterInterpretation interpretation = interpreter.interpret(new String[]{"-avx", "--av"});
+
+        assertFalse(interpretation.has("all"));
+        assertFalse(interpretation.has("verbose"));
+    }
+
+    @Test
+    public void interpret_acceptsFlag_withoutShortHandName() {
+        interpreter = new ParameterInterpreter(
+                new Flag("verbose", null, "Flag description"),
+                new IntFlag("number", "n", "Flag description")
+        );
+
+        ParameterInterpretation interpretation = interpreter.interpret(new String[]{"--verbose", "-n", "4"});
+
+        assertTrue(interpretation.has("verbose"));
+        assertEquals(4, interpretation.getInt("number", 0));
+        assertEquals(Arrays.asList("--number", "--verbose", "-n"), interpreter.complete(new String[]{"-"}));
+    }
+
+    @Test
+    public void interpret_storesValueByName_whenFlagsShareName() {
+        interpreter = new ParameterInterpreter(
+                new FunctionFlag<>("x", "a", "Flag description", (arg) -> "a" + arg),
+                new FunctionFlag<>("x", "b", "Flag description", (arg) -> "b" + arg),
+                new IntFlag("number", "n", "Flag description", true),
+                new LongFlag("number", "m", "Flag description")
+        );
+
+        ParameterInterpretation first = interpreter.interpret(new String[]{"-a", "1", "-n", "4"});
+        ParameterInterpretation second = interpreter.interpret(new String[]{"-a", "1", "-b", "2", "-m", "5"});
+
+        assertTrue(first.has("x"));
+        assertEquals("a1", first.get("x"));
+        assertEquals(4, first.getInt("number", 0));
+        assertEquals(Integer.valueOf(4), first.get("number"));
+        assertEquals("b2", second.get("x"));
+        assertEquals(5L, second.getLong("number", 0));
+    }
+
+    @Test
+    public void interpret_expandsCluster_withLongPrefix() {
+        interpreter = new ParameterInterpreter("--",
+                new Flag("all", "a", "Flag description"),
+                new Flag("verbose", "v", "Flag description"),
+                new IntFlag("threads", "t", "Flag description")
+        );
+
+        ParameterInterpretation interpretation = interpreter.interpret(new String[]{"--av", "----threads=3"});
+
+        assertTrue(interpretation.has("all"));
+        assertTrue(interpretation.has("verbose"));
+        assertEquals(3, interpretation.getInt("threads", 0));
+    }
+
+    @Test(expected = MissingArgumentException.class)
+    public void interpret_throwsMissingArgumentException_whenClusterEndsWithFlagWithoutArgument() {
+        interpreter = new ParameterInterpreter(
+                new Flag("verbose", "v", "Flag description"),
+                new IntFlag("number", "n", "Flag description")
+        );
+
+        interpreter.interpret(new String[]{"-vn"});
+    }
+
     private static class TestException extends Exception {
 
     }
@@ -0,0 +1,184 @@
+package net.rahka.parameters;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+
+import static junit.framework.TestCase.*;
+
+public class ListenerTest {
+
+    @Test
+    public void listener_isToldAboutEveryStep() {
+        List<String> steps = new ArrayList<>();
+        ParameterInterpreter interpreter = new ParameterInterpreter(
+                new IntFlag("number", "n", "Flag description")
+        );
+        interpreter.setListener(new InterpretationListener() {
+            @Override
+            public void tokenScanned(CharSequence token) {
+                steps.add("scanned " + token);
+            }
+
+            @Override
+            public void flagMatched(Flag flag, CharSequence token) {
+                steps.add("matched " + flag.getName());
+            }
+
+            @Override
+            public void unknownFlagIgnored(CharSequence token) {
+                steps.add("ignored " + token);
+            }
+
+            @Override
+            public void parseStarted(Flag flag) {
+                steps.add("started " + flag.getName());
+            }
+
+            @Override
+            public void parseEnded(Flag flag, long nanos) {
+                assertTrue(nanos >= 0);
+                steps.add("ended " + flag.getName());
+            }
+        });
+
+        interpreter.interpret(new String[] {"-x", "-n", "4"});
+
+        assertEquals(List.of("scanned -x", "ignored -x", "scanned -n", "matched number", "scanned 4", "started number", "ended number"), steps);
+    }
+
+    @Test
+    public void metrics_countsStepsAndParses() {
+        InterpretationMetrics metrics = new InterpretationMetrics();
+        ParameterInterpreter interpreter = new ParameterInterpreter(
+                new IntFlag("number", "n", "Flag description"),
+                new SupplierFlag<>("name", "a", "Flag description", () -> "Erik")
+        );
+        interpreter.setListener(metrics);
+
+        interpreter.interpret(new String[] {"-n", "4", "-a", "-x"});
+        interpreter.interpret(new String[] {"-n", "5"});
+
+        assertEquals(6, metrics.getTokens());
+        assertEquals(3, metrics.getMatches());
+        assertEquals(1, metrics.getUnknownFlags());
+        assertEquals(0, metrics.getFailures());
+        assertEquals(2, metrics.getFlagMetrics("number").getParses());
+        assertEquals(1, metrics.getFlagMetrics("name").getParses());
+
+        long recorded = 0;
+        for (long count : metrics.getFlagMetrics("number").getHistogram()) {
+            recorded += count;
+        }
+        assertEquals(2, recorded);
+        assertTrue(metrics.getFlagMetrics("number").getPercentileNanos(99) >= 0);
+    }
+
+    @Test
+    public void metrics_countsFailuresPerFlag() {
+        InterpretationMetrics metrics = new InterpretationMetrics();
+        ParameterInterpreter interpreter = new ParameterInterpreter(
+                new IntFlag("number", "n", "Flag description"),
+                new IntFlag("required", "r", "Flag description", true)
+        );
+        interpreter.setListener(metrics);
+
+        try {
+            interpreter.interpret(new String[] {"-n", "x", "1"});
+            fail();
+        } catch (ExceptionCaughtException e) {
+            //Expected
+        }
+
+        try {
+            interpreter.interpret(new String[0]);
+            fail();
+        } catch (MissingFlagException e) {
+            //Expected
+        }
+
+        assertEquals(2, metrics.getFailures());
+        assertEquals(1, metrics.getFlagMetrics("number").getFailures());
+        assertEquals(0, metrics.getFlagMetrics("number").getParses());
+        assertNull(metrics.getFlagMetrics("required"));
+    }
+
+    @Test
+    public void metrics_countsAsyncInterpretationOnce_whenSeveralFlagsFail() {
+        InterpretationMetrics metrics = new InterpretationMetrics();
+        ParameterInterpreter interpreter = new ParameterInterpreter(
+                new FunctionFlag<>("first", "f", "Flag description", Integer::parseInt),
+                new FunctionFlag<>("second", "s", "Flag description", Integer::parseInt)
+        );
+        interpreter.setListener(metrics);
+
+        try {
+            interpreter.interpretAsync(new String[] {"-f", "x", "-s", "y"}).join();
+            fail();
+        } catch (CompletionException e) {
+            assertTrue(e.getCause() instanceof ExceptionCaughtException);
+        }
+
+        assertEquals(1, metrics.getFailures());
+        assertEquals(1, metrics.getFlagMetrics("first").getFailures());
+    }
+
+    @Test
+    public void metrics_countsIncrementalInterpretationOnce_whenSeveralTokensFail() {
+        InterpretationMetrics metrics = new InterpretationMetrics();
+        ParameterInterpreter interpreter = new ParameterInterpreter(
+                new IntFlag("number", "n", "Flag description")
+        );
+        interpreter.setListener(metrics);
+
+        IncrementalInterpreter incremental = interpreter.incremental();
+        for (String token : new String[] {"-n", "x", "-n", "y"}) {
+            try {
+                incremental.accept(token);
+            } catch (ParameterException e) {
+                //Expected for both arguments
+            }
+        }
+
+        assertEquals(1, metrics.getFailures());
+    }
+
+    @Test
+    public void metrics_countsParses_butNoFailures_whenCollecting() {
+        InterpretationMetrics metrics = new InterpretationMetrics();
+        ParameterInterpreter interpreter = new ParameterInterpreter(
+                new IntFlag("number", "n", "Flag description"),
+                new IntFlag("other", "o", "Flag description")
+        );
+        interpreter.setListener(metrics);
+
+        interpreter.interpretCollecting(new String[] {"-n", "4", "-o", "x"});
+
+        assertEquals(0, metrics.getFailures());
+        assertEquals(1, metrics.getFlagMetrics("number").getParses());
+        assertNull(metrics.getFlagMetrics("other"));
+    }
+
+    @Test
+    public void listener_isCopied_whenInterpreterIsCompiled() {
+        InterpretationMetrics metrics = new InterpretationMetrics();
+        ParameterInterpreter interpreter = new ParameterInterpreter(
+                new IntFlag("number", "n", "Flag description")
+        );
+        interpreter.setListener(metrics);
+
+        ParameterInterpreter compiled = interpreter.compile();
+        compiled.interpret(new String[] {"-n", "4"});
+
+        assertSame(metrics, compiled.getListener());
+        assertEquals(1, metrics.getFlagMetrics("number").getParses());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void setListener_throwsUnsupportedOperationException_whenCompiled() {
+        new ParameterInterpreter().compile().setListener(new InterpretationMetrics());
+    }
+
+}
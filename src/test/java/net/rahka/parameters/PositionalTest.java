@@ -0,0 +1,165 @@
+package net.rahka.parameters;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static junit.framework.TestCase.*;
+
+public class PositionalTest {
+
+    private ParameterInterpreter copy() {
+        ParameterInterpreter interpreter = new ParameterInterpreter(
+                new Flag("verbose", "v", "Flag description"),
+                new IntFlag("number", "n", "Flag description")
+        );
+        interpreter.addPositionals(
+                Positional.variadic("source", "Positional description", 1),
+                Positional.required("destination", "Positional description")
+        );
+        return interpreter;
+    }
+
+    @Test
+    public void interpret_assignsVariadicTail_beforeFixedPositional() {
+        ParameterInterpretation interpretation = copy().interpret(new String[]{"-v", "a", "b", "c", "dest"});
+
+        assertEquals(Arrays.asList("a", "b", "c", "dest"), interpretation.getPositionals());
+        assertEquals(Arrays.asList("a", "b", "c"), interpretation.getPositional("source"));
+        assertEquals("dest", interpretation.getPositional("destination", null));
+        assertTrue(interpretation.has("verbose"));
+    }
+
+    @Test
+    public void interpret_keepsPositionals_asViewOfArgs() {
+        String[] args = new String[100002];
+        args[0] = "-v";
+        for (int i = 1; i < args.length; i++) {
+            args[i] = "file" + i;
+        }
+
+        ParameterInterpretation interpretation = copy().interpret(args);
+        List<String> sources = interpretation.getPositional("source");
+
+        assertEquals(100000, sources.size());
+        assertSame(args[1], sources.get(0));
+        args[1] = "changed";
+        assertEquals("changed", sources.get(0));
+        assertEquals("file100001", interpretation.getPositional("destination", null));
+    }
+
+    @Test
+    public void interpret_collectsPositionals_separatedByFlags() {
+        ParameterInterpretation interpretation = copy().interpret(new String[]{"a", "-n", "3", "b", "-v", "dest"});
+
+        assertEquals(Arrays.asList("a", "b"), interpretation.getPositional("source"));
+        assertEquals("dest", interpretation.getPositional("destination", null));
+        assertEquals(3, interpretation.getInt("number", 0));
+    }
+
+    @Test
+    public void interpret_takesEverything_afterEndOfFlags() {
+        ParameterInterpretation interpretation = copy().interpret(new String[]{"-v", "--", "-n", "--", "dest"});
+
+        assertEquals(Arrays.asList("-n", "--"), interpretation.getPositional("source"));
+        assertEquals("dest", interpretation.getPositional("destination", null));
+        assertFalse(interpretation.has("number"));
+    }
+
+    @Test
+    public void interpret_fillsOptionalPositionals_inOrder() {
+        ParameterInterpreter interpreter = new ParameterInterpreter();
+        interpreter.addPositionals(
+                Positional.required("input", "Positional description"),
+                Positional.optional("output", "Positional description"),
+                Positional.of("range", "Positional description", 2)
+        );
+
+        ParameterInterpretation interpretation = interpreter.interpret(new String[]{"in", "1", "5"});
+        assertEquals("in", interpretation.getPositional("input", null));
+        assertEquals(Collections.emptyList(), interpretation.getPositional("output"));
+        assertEquals("stdout", interpretation.getPositional("output", "stdout"));
+        assertEquals(Arrays.asList("1", "5"), interpretation.getPositional("range"));
+
+        interpretation = interpreter.interpret(new String[]{"in", "out", "1", "5"});
+        assertEquals("out", interpretation.getPositional("output", null));
+        assertNull(interpretation.getPositional("other"));
+    }
+
+    @Test
+    public void interpret_throws_whenPositionalsAreMissing() {
+        try {
+            copy().interpret(new String[]{"-v", "a"});
+            fail();
+        } catch (MissingArgumentException e) {
+            assertEquals("Missing positional arguments (destination)!", e.getMessage());
+        }
+    }
+
+    @Test
+    public void interpret_throws_whenThereAreTooManyPositionals() {
+        ParameterInterpreter interpreter = new ParameterInterpreter();
+        interpreter.addPositional(Positional.required("input", "Positional description"));
+
+        try {
+            interpreter.interpret(new String[]{"a", "b"});
+            fail();
+        } catch (ParameterException e) {
+            assertEquals("Unexpected positional argument: b", e.getMessage());
+        }
+    }
+
+    @Test
+    public void interpret_givesUnnamedArguments_toRequiredFlagsFirst() {
+        ParameterInterpreter interpreter = new ParameterInterpreter(
+                new IntFlag("number", "n", "Flag description", true)
+        );
+        interpreter.addPositional(Positional.variadic("rest", "Positional description", 0));
+
+        ParameterInterpretation interpretation = interpreter.interpret(new String[]{"4", "a", "b"});
+
+        assertEquals(4, interpretation.getInt("number", 0));
+        assertEquals(Arrays.asList("a", "b"), interpretation.getPositional("rest"));
+    }
+
+    @Test
+    public void interpret_ignoresUnnamedArguments_withoutPositionals() {
+        ParameterInterpreter interpreter = new ParameterInterpreter(new Flag("verbose", "v", "Flag description"));
+
+        ParameterInterpretation interpretation = interpreter.interpret(new String[]{"a", "--", "-v"});
+
+        assertFalse(interpretation.has("verbose"));
+        assertTrue(interpretation.getPositionals().isEmpty());
+    }
+
+    @Test
+    public void interpret_copiesPositionals_ofLine() {
+        ParameterInterpretation interpretation = copy().interpret("-v 'a b' c dest");
+
+        assertEquals(Arrays.asList("a b", "c"), interpretation.getPositional("source"));
+    }
+
+    @Test
+    public void interpret_resetsPositionals_whenReused() {
+        ParameterInterpreter interpreter = copy();
+        ParameterInterpretation interpretation = interpreter.interpret(new String[]{"a", "-v", "b", "c"}, null);
+
+        interpreter.interpret(new String[]{"x", "y"}, interpretation);
+
+        assertEquals(Arrays.asList("x"), interpretation.getPositional("source"));
+        assertEquals("y", interpretation.getPositional("destination", null));
+    }
+
+    @Test
+    public void addPositionals_throws_whenTwoAreVariadic() {
+        try {
+            copy().addPositional(Positional.variadic("more", "Positional description", 0));
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals("Only one positional can be variadic!", e.getMessage());
+        }
+    }
+
+}
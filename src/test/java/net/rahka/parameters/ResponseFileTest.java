@@ -0,0 +1,139 @@
+package net.rahka.parameters;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static junit.framework.TestCase.*;
+
+public class ResponseFileTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    ParameterInterpreter interpreter;
+
+    @Test
+    public void interpreter_expandsResponseFiles() throws IOException {
+        Path file = write("-i 4\n--name 'Erik Nilsen'\t-q \"say \\\"hi\\\" \\\\ \\n\" -e ''");
+
+        interpreter = new ParameterInterpreter(
+                new IntFlag("int", "i", "Flag description"),
+                new FunctionFlag<>("name", "n", "Flag description", argument -> argument),
+                new FunctionFlag<>("quote", "q", "Flag description", argument -> argument),
+                new FunctionFlag<>("empty", "e", "Flag description", argument -> argument),
+                new Flag("simple", "s", "Flag description")
+        );
+        interpreter.setResponseFiles(true);
+
+        ParameterInterpretation interpretation = interpreter.interpret(new String[]{"@" + file, "-s"});
+
+        assertEquals(4, interpretation.getInt("int", 0));
+        assertEquals("Erik Nilsen", interpretation.get("name"));
+        assertEquals("say \"hi\" \\ \\n", interpretation.get("quote"));
+        assertEquals("", interpretation.get("empty"));
+        assertTrue(interpretation.has("simple"));
+    }
+
+    @Test
+    public void interpreter_ignoresResponseFiles_whenNotEnabled() {
+        interpreter = new ParameterInterpreter(
+                new FunctionFlag<>("name", "n", "Flag description", argument -> argument)
+        );
+
+        ParameterInterpretation interpretation = interpreter.interpret(new String[]{"-n", "@nonexistent"});
+
+        assertEquals("@nonexistent", interpretation.get("name"));
+    }
+
+    @Test
+    public void interpreter_removesFirstAt_whenArgumentStartsWithTwoAts() {
+        interpreter = new ParameterInterpreter(
+                new FunctionFlag<>("name", "n", "Flag description", argument -> argument)
+        );
+        interpreter.setResponseFiles(true);
+
+        ParameterInterpretation interpretation = interpreter.interpret(new String[]{"-n", "@@home"});
+
+        assertEquals("@home", interpretation.get("name"));
+    }
+
+    @Test
+    public void interpreter_takesArgumentOfLastFlagInResponseFile_fromNextArgument() throws IOException {
+        Path file = write("-n");
+
+        interpreter = new ParameterInterpreter(
+                new FunctionFlag<>("name", "n", "Flag description", argument -> argument)
+        );
+        interpreter.setResponseFiles(true);
+
+        ParameterInterpretation interpretation = interpreter.interpret(new String[]{"@" + file, "Erik"});
+
+        assertEquals("Erik", interpretation.get("name"));
+    }
+
+    @Test
+    public void interpreter_streamsLargeResponseFiles() throws IOException {
+        Path file = folder.newFile().toPath();
+        List<String> names = new ArrayList<>();
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < 100000; i++) {
+                String name = "blåbær" + i;
+                names.add(name);
+                writer.write(i % 2 == 0 ? "-c " : "-c\n");
+                writer.write(name);
+                writer.write(' ');
+            }
+        }
+
+        List<String> consumed = new ArrayList<>();
+        interpreter = new ParameterInterpreter(
+                new ConsumerFlag("consumer", "c", "Flag description", consumed::add)
+        );
+        interpreter.setResponseFiles(true);
+
+        interpreter.interpret(new String[]{"@" + file});
+
+        assertEquals(names, consumed);
+    }
+
+    @Test(expected = ExceptionCaughtException.class)
+    public void interpret_throwsExceptionCaughtException_whenResponseFileDoesNotExist() {
+        interpreter = new ParameterInterpreter();
+        interpreter.setResponseFiles(true);
+
+        interpreter.interpret(new String[]{"@" + folder.getRoot().toPath().resolve("nonexistent")});
+    }
+
+    @Test(expected = ParameterException.class)
+    public void interpret_throwsParameterException_whenQuoteIsNotClosed() throws IOException {
+        Path file = write("-n 'Erik");
+
+        interpreter = new ParameterInterpreter(
+                new FunctionFlag<>("name", "n", "Flag description", argument -> argument)
+        );
+        interpreter.setResponseFiles(true);
+
+        interpreter.interpret(new String[]{"@" + file});
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void setResponseFiles_throwsUnsupportedOperationException_whenCompiled() {
+        new ParameterInterpreter().compile().setResponseFiles(true);
+    }
+
+    private Path write(String contents) throws IOException {
+        Path file = folder.newFile().toPath();
+        Files.write(file, contents.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+}
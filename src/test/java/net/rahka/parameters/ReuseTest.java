@@ -0,0 +1,105 @@
+package net.rahka.parameters;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static junit.framework.TestCase.*;
+
+public class ReuseTest {
+
+    private final ParameterInterpreter interpreter = new ParameterInterpreter(
+            new IntFlag("number", "n", "Flag description"),
+            new Flag("verbose", "v", "Flag description"),
+            new FunctionFlag<>("name", "a", "Flag description", (arg) -> arg),
+            new IntListFlag("list", "l", "Flag description")
+    );
+
+    @Test
+    public void interpret_refillsInterpretation() {
+        ParameterInterpretation interpretation = interpreter.interpret(new String[]{"-n", "4", "-v", "-a", "Erik", "-l", "1,2"}, null);
+
+        ParameterInterpretation reused = interpreter.interpret(new String[]{"-n", "5", "-l", "3"}, interpretation);
+
+        assertSame(interpretation, reused);
+        assertEquals(5, reused.getInt("number", 0));
+        assertFalse(reused.has("verbose"));
+        assertFalse(reused.has("name"));
+        assertTrue(Arrays.equals(new int[]{3}, reused.<IntList>get("list").toArray()));
+    }
+
+    @Test
+    public void interpret_reusesInterpretationOfPlainInterpret() {
+        ParameterInterpretation interpretation = interpreter.interpret(new String[]{"-v"});
+
+        assertSame(interpretation, interpreter.interpret(new String[]{"-n", "1"}, interpretation));
+        assertFalse(interpretation.has("verbose"));
+        assertEquals(1, interpretation.getInt("number", 0));
+    }
+
+    @Test
+    public void interpret_reusesInterpretation_afterException() {
+        ParameterInterpreter interpreter = new ParameterInterpreter(
+                new IntFlag("number", "n", "Flag description", true),
+                new Flag("verbose", "v", "Flag description")
+        );
+        ParameterInterpretation interpretation = interpreter.interpret(new String[]{"4"}, null);
+
+        try {
+            interpreter.interpret(new String[]{"-v"}, interpretation);
+            fail();
+        } catch (MissingFlagException e) {
+            //Expected
+        }
+
+        interpreter.interpret(new String[]{"7"}, interpretation);
+        assertEquals(7, interpretation.getInt("number", 0));
+        assertFalse(interpretation.has("verbose"));
+    }
+
+    @Test
+    public void interpret_throws_whenInterpretationIsCached() {
+        interpreter.setCache(4);
+        ParameterInterpretation interpretation = interpreter.interpret(new String[]{"-n", "4"});
+
+        try {
+            interpreter.interpret(new String[]{"-n", "5"}, interpretation);
+            fail();
+        } catch (IllegalArgumentException e) {
+            //Expected
+        }
+
+        assertSame(interpretation, interpreter.interpret(new String[]{"-n", "4"}));
+        assertEquals(4, interpretation.getInt("number", 0));
+    }
+
+    @Test
+    public void interpret_throws_whenInterpretationIsSnapshot() {
+        IncrementalInterpreter incremental = interpreter.incremental();
+        incremental.accept("-v");
+        ParameterInterpretation snapshot = incremental.snapshot();
+
+        try {
+            interpreter.interpret(new String[]{"-n", "5"}, snapshot);
+            fail();
+        } catch (IllegalArgumentException e) {
+            //Expected
+        }
+
+        assertTrue(snapshot.has("verbose"));
+    }
+
+    @Test
+    public void interpret_throws_whenFlagsWereAdded() {
+        ParameterInterpretation interpretation = interpreter.interpret(new String[0], null);
+        interpreter.addFlag(new Flag("other", "o", "Flag description"));
+
+        try {
+            interpreter.interpret(new String[0], interpretation);
+            fail();
+        } catch (IllegalArgumentException e) {
+            //Expected
+        }
+    }
+
+}
@@ -0,0 +1,212 @@
+package net.rahka.parameters;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static junit.framework.TestCase.*;
+
+public class SourceTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private ParameterInterpreter interpreter() {
+        return new ParameterInterpreter(
+                new IntFlag("thread-count", "t", "Flag description"),
+                new FunctionFlag<>("host", "h", "Flag description", (arg) -> arg, true),
+                new Flag("verbose", "v", "Flag description"),
+                new Flag("debug", "d", "Flag description")
+        );
+    }
+
+    @Test
+    public void interpret_prefersArguments_thenSourcesInOrder() {
+        ParameterInterpreter interpreter = interpreter();
+        Map<String, String> environment = new HashMap<>();
+        environment.put("APP_THREAD_COUNT", "8");
+        environment.put("APP_HOST", "env.example");
+        Map<String, String> defaults = new HashMap<>();
+        defaults.put("thread-count", "1");
+        defaults.put("host", "default.example");
+        defaults.put("verbose", "true");
+        defaults.put("debug", "false");
+        interpreter.addSources(ParameterSource.environment("APP_", environment), ParameterSource.of(defaults));
+
+        ParameterInterpretation interpretation = interpreter.interpret(new String[]{"-h", "arg.example"});
+
+        assertEquals("arg.example", interpretation.get("host"));
+        assertEquals(8, interpretation.getInt("thread-count", 0));
+        assertTrue(interpretation.has("verbose"));
+        assertFalse(interpretation.has("debug"));
+    }
+
+    @Test
+    public void interpret_looksUpOnlyMissingFlags() {
+        ParameterInterpreter interpreter = interpreter();
+        List<String> lookups = new ArrayList<>();
+        interpreter.addSource(flag -> {
+            lookups.add(flag.getName());
+            return null;
+        });
+
+        interpreter.interpret(new String[]{"-h", "a", "-t", "2", "-v"});
+
+        assertEquals(List.of("debug"), lookups);
+    }
+
+    @Test
+    public void interpret_readsPropertiesFileOnce_andOnlyWhenNeeded() throws IOException {
+        Path file = folder.newFile("app.properties").toPath();
+        Files.write(file, "host=file.example\nthread-count=3\n".getBytes(StandardCharsets.UTF_8));
+
+        ParameterInterpreter interpreter = new ParameterInterpreter(
+                new FunctionFlag<>("host", "h", "Flag description", (arg) -> arg, true),
+                new IntFlag("thread-count", "t", "Flag description")
+        );
+        interpreter.addSource(ParameterSource.properties(file));
+
+        Files.delete(file);
+        assertEquals("a", interpreter.interpret(new String[]{"-h", "a", "-t", "1"}).get("host"));
+
+        Files.write(file, "host=file.example\nthread-count=3\n".getBytes(StandardCharsets.UTF_8));
+        assertEquals("file.example", interpreter.interpret(new String[0]).get("host"));
+
+        Files.delete(file);
+        assertEquals(3, interpreter.interpret(new String[]{"-h", "a"}).getInt("thread-count", 0));
+    }
+
+    @Test
+    public void interpret_throws_whenPropertiesFileCannotBeRead() {
+        ParameterInterpreter interpreter = interpreter();
+        interpreter.addSource(ParameterSource.properties(folder.getRoot().toPath().resolve("missing.properties")));
+
+        try {
+            interpreter.interpret(new String[]{"-h", "a"});
+            fail();
+        } catch (ExceptionCaughtException e) {
+            assertTrue(e.getMessage().startsWith("Exception thrown when reading properties file"));
+        }
+    }
+
+    @Test
+    public void interpret_satisfiesRequiredFlags_fromSources() {
+        ParameterInterpreter interpreter = interpreter();
+        try {
+            interpreter.interpret(new String[0]);
+            fail();
+        } catch (MissingFlagException e) {
+            //Expected
+        }
+
+        interpreter.addSource(ParameterSource.of(Map.of("host", "source.example")));
+        assertEquals("source.example", interpreter.compile().interpret(new String[0]).get("host"));
+    }
+
+    @Test
+    public void interpretCollecting_collectsParseFailures_ofSources() {
+        ParameterInterpreter interpreter = interpreter();
+        interpreter.addSource(ParameterSource.of(Map.of("thread-count", "many", "host", "a")));
+
+        CollectedInterpretation result = interpreter.interpretCollecting(new String[0]);
+
+        assertEquals(1, result.getDiagnostics().size());
+        assertEquals(Diagnostic.Kind.PARSE_FAILURE, result.getDiagnostics().get(0).getKind());
+        assertEquals("many", result.getDiagnostics().get(0).getArgument());
+    }
+
+    @Test
+    public void interpret_doesNotCache_valuesFromSources() {
+        ParameterInterpreter interpreter = interpreter();
+        Map<String, String> values = new HashMap<>();
+        values.put("host", "first");
+        interpreter.addSource(ParameterSource.of(values));
+        interpreter.setCache(4);
+
+        assertEquals("first", interpreter.interpret(new String[0]).get("host"));
+        values.put("host", "second");
+        assertEquals("second", interpreter.interpret(new String[0]).get("host"));
+    }
+
+    @Test
+    public void interpret_doesNotCache_whenSourcesHadNoValue() {
+        ParameterInterpreter interpreter = interpreter();
+        Map<String, String> values = new HashMap<>();
+        interpreter.addSource(ParameterSource.of(values));
+        interpreter.setCache(4);
+        String[] args = {"-h", "a"};
+
+        assertFalse(interpreter.interpret(args).has("verbose"));
+        values.put("verbose", "true");
+        assertTrue(interpreter.interpret(args).has("verbose"));
+    }
+
+    @Test
+    public void finish_leavesEarlierSnapshot_withoutValuesFromSources() {
+        ParameterInterpreter interpreter = interpreter();
+        interpreter.addSource(ParameterSource.of(Map.of("thread-count", "4")));
+        IncrementalInterpreter incremental = interpreter.incremental();
+        incremental.accept("-h");
+        incremental.accept("a");
+
+        ParameterInterpretation snapshot = incremental.snapshot();
+        ParameterInterpretation finished = incremental.finish();
+
+        assertFalse(snapshot.has("thread-count"));
+        assertEquals(4, finished.getInt("thread-count", 0));
+        assertEquals("a", snapshot.get("host"));
+    }
+
+    @Test
+    public void incremental_interpretsLaterTokens_withoutValuesFromSources() {
+        ParameterInterpreter interpreter = new ParameterInterpreter(
+                new IntListFlag("ids", "i", "Flag description"),
+                new FunctionFlag<>("host", "h", "Flag description", (arg) -> arg, true)
+        );
+        interpreter.addSource(ParameterSource.of(Map.of("ids", "7", "host", "source.example")));
+        IncrementalInterpreter incremental = interpreter.incremental();
+
+        ParameterInterpretation first = incremental.finish();
+        incremental.accept("-i");
+        incremental.accept("1");
+        incremental.accept("given.example");
+        ParameterInterpretation second = incremental.finish();
+
+        assertEquals("[7]", first.get("ids").toString());
+        assertEquals("source.example", first.get("host"));
+        assertEquals("[1]", second.get("ids").toString());
+        assertEquals("given.example", second.get("host"));
+    }
+
+    @Test
+    public void interpret_doesNotLookUp_flagsWithSideEffects() {
+        AtomicInteger runs = new AtomicInteger();
+        List<String> looked = new ArrayList<>();
+        ParameterInterpreter interpreter = new ParameterInterpreter(
+                new RunnableFlag("run", "r", "Flag description", runs::incrementAndGet),
+                new Flag("verbose", "v", "Flag description")
+        );
+        interpreter.addSource(flag -> {
+            looked.add(flag.getName());
+            return "yes";
+        });
+
+        ParameterInterpretation interpretation = interpreter.interpret(new String[0]);
+
+        assertEquals(0, runs.get());
+        assertFalse(interpretation.has("run"));
+        assertTrue(interpretation.has("verbose"));
+        assertEquals(List.of("verbose"), looked);
+    }
+
+}